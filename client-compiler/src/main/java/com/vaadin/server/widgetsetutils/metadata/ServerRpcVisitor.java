@@ -25,6 +25,7 @@ import com.google.gwt.core.ext.typeinfo.JMethod;
 import com.google.gwt.core.ext.typeinfo.JType;
 import com.vaadin.client.metadata.TypeDataStore.MethodAttribute;
 import com.vaadin.shared.annotations.Delayed;
+import com.vaadin.shared.annotations.LastOnly;
 import com.vaadin.shared.annotations.NoLoadingIndicator;
 
 public class ServerRpcVisitor extends TypeVisitor {
@@ -52,6 +53,11 @@ public class ServerRpcVisitor extends TypeVisitor {
                         }
                     }
 
+                    if (method.getAnnotation(LastOnly.class) != null) {
+                        bundle.setMethodAttribute(type, method,
+                                MethodAttribute.LAST_ONLY);
+                    }
+
                     if (method
                             .getAnnotation(NoLoadingIndicator.class) != null) {
                         bundle.setMethodAttribute(type, method,
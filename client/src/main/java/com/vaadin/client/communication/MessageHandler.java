@@ -233,7 +233,9 @@ public class MessageHandler {
             throw new IllegalArgumentException(
                     "The json to handle cannot be null");
         }
-        if (getServerId(json) == -1) {
+        // The server id is explicitly set to -1 for messages that are not
+        // part of the ordered sequence, e.g. messages shared between UIs
+        if (!json.containsKey(ApplicationConstants.SERVER_SYNC_ID)) {
             getLogger().severe("Response didn't contain a server id. "
                     + "Please verify that the server is up-to-date and that the response data has not been modified in transmission.");
         }
@@ -77,6 +77,16 @@ public class DataCommunicatorConnector extends AbstractExtensionConnector {
                                 updateRowData(data.getObject(i));
                             }
                         }
+
+                        @Override
+                        public void insertRows(int firstIndex, int count) {
+                            insertRowData(firstIndex, count);
+                        }
+
+                        @Override
+                        public void removeRows(int firstIndex, int count) {
+                            removeRowData(firstIndex, count);
+                        }
                     });
         }
 
@@ -26,10 +26,12 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.EventObject;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
@@ -41,6 +43,7 @@ import com.vaadin.shared.communication.SharedState;
 import com.vaadin.shared.ui.ComponentStateUtil;
 import com.vaadin.ui.Component;
 import com.vaadin.ui.Component.Event;
+import com.vaadin.ui.ConnectorTracker;
 import com.vaadin.ui.HasComponents;
 import com.vaadin.ui.LegacyComponent;
 import com.vaadin.ui.UI;
@@ -92,6 +95,13 @@ public abstract class AbstractClientConnector
 
     private ErrorHandler errorHandler = null;
 
+    /**
+     * The names of the shared state fields that have been marked as changed
+     * since the state was last encoded, or <code>null</code> if any field
+     * might have changed.
+     */
+    private transient Set<String> dirtyStateFields;
+
     private static final ConcurrentHashMap<Class<? extends AbstractClientConnector>, Class<? extends SharedState>> stateTypeCache = new ConcurrentHashMap<Class<? extends AbstractClientConnector>, Class<? extends SharedState>>();
 
     @Override
@@ -138,12 +148,50 @@ public abstract class AbstractClientConnector
         assert getSession() == null
                 || getSession().hasLock() : buildLockAssertMessage(
                         "markAsDirty()");
+        dirtyStateFields = null;
         UI uI = getUI();
         if (uI != null) {
             uI.getConnectorTracker().markDirty(this);
         }
     }
 
+    /**
+     * Marks the given shared state fields as changed and the connector as
+     * dirty. Unlike {@link #markAsDirty()} and {@link #getState()}, only the
+     * given fields are encoded and compared to the values known by the client
+     * when the response is written, as long as the state has not been marked
+     * dirty in some other way since the previous response.
+     * <p>
+     * This is intended to be used together with {@code getState(false)} for
+     * connectors with large states where only a few fields change at a time.
+     * Other changes made through {@code getState(false)} are not sent to the
+     * client until the whole state is marked dirty.
+     *
+     * @since 8.0
+     * @param fieldNames
+     *            the names of the changed shared state fields
+     */
+    protected void markStateFieldDirty(String... fieldNames) {
+        assert getSession() == null
+                || getSession().hasLock() : buildLockAssertMessage(
+                        "markStateFieldDirty()");
+        UI uI = getUI();
+        if (uI == null) {
+            return;
+        }
+        ConnectorTracker connectorTracker = uI.getConnectorTracker();
+        if (dirtyStateFields != null) {
+            if (dirtyStateFields.isEmpty()
+                    && connectorTracker.isDirty(this)) {
+                // Already marked dirty by other means
+                dirtyStateFields = null;
+            } else {
+                Collections.addAll(dirtyStateFields, fieldNames);
+            }
+        }
+        connectorTracker.markDirty(this);
+    }
+
     private String buildLockAssertMessage(String method) {
         if (VaadinService.isOtherSessionLocked(getSession())) {
             return "The session of this connecor is not locked, but there is another session that is locked. "
@@ -258,6 +306,7 @@ public abstract class AbstractClientConnector
             sharedState = createState();
         }
         if (markAsDirty) {
+            dirtyStateFields = null;
             UI ui = getUI();
             if (ui != null && !ui.getConnectorTracker().isDirty(this)
                     && !ui.getConnectorTracker().isWritingResponse()) {
@@ -269,7 +318,10 @@ public abstract class AbstractClientConnector
 
     @Override
     public JsonObject encodeState() {
-        return LegacyCommunicationManager.encodeState(this, getState(false));
+        Set<String> changedFields = dirtyStateFields;
+        dirtyStateFields = new HashSet<String>();
+        return LegacyCommunicationManager.encodeState(this, getState(false),
+                changedFields);
     }
 
     /**
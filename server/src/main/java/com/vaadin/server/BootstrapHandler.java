@@ -23,12 +23,15 @@ import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import javax.servlet.http.HttpServletResponse;
 
@@ -72,6 +75,25 @@ public abstract class BootstrapHandler extends SynchronizedRequestHandler {
      */
     public static final String IGNORE_RESTART_PARAM = "ignoreRestart";
 
+    /**
+     * The maximum number of bootstrap page templates cached by a handler.
+     */
+    private static final int MAX_BOOTSTRAP_TEMPLATES = 100;
+
+    /**
+     * App ids that can be inserted into a template without escaping.
+     */
+    private static final Pattern SAFE_APP_ID = Pattern.compile("[\\w-]+");
+
+    private final Map<List<Object>, BootstrapPageTemplate> bootstrapTemplates = new LinkedHashMap<List<Object>, BootstrapPageTemplate>(
+            16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(
+                Entry<List<Object>, BootstrapPageTemplate> eldest) {
+            return size() > MAX_BOOTSTRAP_TEMPLATES;
+        }
+    };
+
     protected class BootstrapContext implements Serializable {
 
         private final VaadinResponse response;
@@ -278,13 +300,12 @@ public abstract class BootstrapHandler extends SynchronizedRequestHandler {
                     new BootstrapFragmentResponse(this, request, session,
                             uiClass, new ArrayList<Node>(), provider));
 
-            setupMainDiv(context);
-
-            BootstrapFragmentResponse fragmentResponse = context
-                    .getBootstrapResponse();
-            session.modifyBootstrapResponse(fragmentResponse);
-
-            String html = getBootstrapHtml(context);
+            String html;
+            if (canUseBootstrapTemplate(context)) {
+                html = getBootstrapHtmlFromTemplate(context);
+            } else {
+                html = renderBootstrapHtml(context);
+            }
 
             writeBootstrapPage(response, html);
         } catch (JsonException e) {
@@ -294,6 +315,75 @@ public abstract class BootstrapHandler extends SynchronizedRequestHandler {
         return true;
     }
 
+    private String renderBootstrapHtml(BootstrapContext context)
+            throws IOException {
+        setupMainDiv(context);
+
+        BootstrapFragmentResponse fragmentResponse = context
+                .getBootstrapResponse();
+        context.getSession().modifyBootstrapResponse(fragmentResponse);
+
+        return getBootstrapHtml(context);
+    }
+
+    /**
+     * Checks whether the bootstrap page can be rendered from a cached template
+     * instead of building a new document. Templates are only used for
+     * standalone pages in production mode when no bootstrap listeners could
+     * modify the page.
+     */
+    private boolean canUseBootstrapTemplate(BootstrapContext context) {
+        VaadinRequest request = context.getRequest();
+        VaadinService vaadinService = request.getService();
+        return vaadinService.getDeploymentConfiguration().isProductionMode()
+                && vaadinService.isStandalone(request)
+                && !context.getSession().hasBootstrapListeners()
+                && SAFE_APP_ID.matcher(context.getAppId()).matches();
+    }
+
+    private String getBootstrapHtmlFromTemplate(BootstrapContext context)
+            throws IOException {
+        // Everything except the app id and the main script goes into the key
+        List<Object> key = getBootstrapTemplateKey(context);
+        BootstrapPageTemplate template;
+        synchronized (bootstrapTemplates) {
+            template = bootstrapTemplates.get(key);
+        }
+
+        if (template == null) {
+            String html = renderBootstrapHtml(context);
+            template = BootstrapPageTemplate.create(html, context.getAppId(),
+                    getMainScriptContents(context));
+            if (template != null) {
+                synchronized (bootstrapTemplates) {
+                    bootstrapTemplates.put(key, template);
+                }
+            }
+            return html;
+        }
+
+        // Templates are not used with bootstrap listeners, so the headers are
+        // the same as for a rendered page
+        sendBootstrapHeaders(context.getResponse(), createPageHeaders());
+
+        return template.render(context.getAppId(),
+                getMainScriptContents(context));
+    }
+
+    private List<Object> getBootstrapTemplateKey(BootstrapContext context) {
+        VaadinRequest request = context.getRequest();
+        Class<? extends UI> uiClass = context.getUIClass();
+        String themeName = context.getThemeName();
+        String themeUri = themeName == null ? null
+                : getThemeUri(context, themeName);
+
+        return Arrays.asList(uiClass, themeName, themeUri,
+                request.getService().getStaticFileLocation(request),
+                context.getPushMode().isEnabled(), getMainDivStyle(context),
+                getViewportContent(context), getPageTitle(context),
+                getJavaScriptUrls(context), getStyleSheetUrls(context));
+    }
+
     private String getBootstrapHtml(BootstrapContext context) {
         VaadinRequest request = context.getRequest();
         VaadinResponse response = context.getResponse();
@@ -303,7 +393,7 @@ public abstract class BootstrapHandler extends SynchronizedRequestHandler {
                 .getBootstrapResponse();
 
         if (vaadinService.isStandalone(request)) {
-            Map<String, Object> headers = new LinkedHashMap<String, Object>();
+            Map<String, Object> headers = createPageHeaders();
             Document document = Document.createShell("");
             BootstrapPageResponse pageResponse = new BootstrapPageResponse(this,
                     request, context.getSession(), context.getUIClass(),
@@ -359,12 +449,20 @@ public abstract class BootstrapHandler extends SynchronizedRequestHandler {
         writer.close();
     }
 
+    /**
+     * Creates the headers sent with a standalone bootstrap page before any
+     * bootstrap listener has modified them.
+     */
+    private static Map<String, Object> createPageHeaders() {
+        Map<String, Object> headers = new LinkedHashMap<String, Object>();
+        headers.put("Cache-Control", "no-cache");
+        headers.put("Pragma", "no-cache");
+        headers.put("Expires", Long.valueOf(0));
+        return headers;
+    }
+
     private void setupStandaloneDocument(BootstrapContext context,
             BootstrapPageResponse response) {
-        response.setHeader("Cache-Control", "no-cache");
-        response.setHeader("Pragma", "no-cache");
-        response.setDateHeader("Expires", 0);
-
         Document document = response.getDocument();
 
         DocumentType doctype = new DocumentType("html", "", "",
@@ -381,6 +479,48 @@ public abstract class BootstrapHandler extends SynchronizedRequestHandler {
         head.appendElement("meta").attr("http-equiv", "X-UA-Compatible")
                 .attr("content", "IE=11;chrome=1");
 
+        String viewportContent = getViewportContent(context);
+        if (viewportContent != null) {
+            head.appendElement("meta").attr("name", "viewport").attr("content",
+                    viewportContent);
+        }
+
+        String title = getPageTitle(context);
+        if (title != null) {
+            head.appendElement("title").appendText(title);
+        }
+
+        head.appendElement("style").attr("type", "text/css")
+                .appendText("html, body {height:100%;margin:0;}");
+
+        // Add favicon links
+        String themeName = context.getThemeName();
+        if (themeName != null) {
+            String themeUri = getThemeUri(context, themeName);
+            head.appendElement("link").attr("rel", "shortcut icon")
+                    .attr("type", "image/vnd.microsoft.icon")
+                    .attr("href", themeUri + "/favicon.ico");
+            head.appendElement("link").attr("rel", "icon")
+                    .attr("type", "image/vnd.microsoft.icon")
+                    .attr("href", themeUri + "/favicon.ico");
+        }
+
+        for (String url : getJavaScriptUrls(context)) {
+            head.appendElement("script").attr("type", "text/javascript")
+                    .attr("src", url);
+        }
+
+        for (String url : getStyleSheetUrls(context)) {
+            head.appendElement("link").attr("rel", "stylesheet")
+                    .attr("type", "text/css").attr("href", url);
+        }
+
+        Element body = document.body();
+        body.attr("scroll", "auto");
+        body.addClass(ApplicationConstants.GENERATED_BODY_CLASSNAME);
+    }
+
+    private String getViewportContent(BootstrapContext context) {
         Class<? extends UI> uiClass = context.getUIClass();
 
         String viewportContent = null;
@@ -410,56 +550,40 @@ public abstract class BootstrapHandler extends SynchronizedRequestHandler {
                         e);
             }
         }
+        return viewportContent;
+    }
 
-        if (viewportContent != null) {
-            head.appendElement("meta").attr("name", "viewport").attr("content",
-                    viewportContent);
-        }
-
-        String title = response.getUIProvider().getPageTitle(
+    private String getPageTitle(BootstrapContext context) {
+        return context.getBootstrapResponse().getUIProvider().getPageTitle(
                 new UICreateEvent(context.getRequest(), context.getUIClass()));
-        if (title != null) {
-            head.appendElement("title").appendText(title);
-        }
-
-        head.appendElement("style").attr("type", "text/css")
-                .appendText("html, body {height:100%;margin:0;}");
+    }
 
-        // Add favicon links
-        String themeName = context.getThemeName();
-        if (themeName != null) {
-            String themeUri = getThemeUri(context, themeName);
-            head.appendElement("link").attr("rel", "shortcut icon")
-                    .attr("type", "image/vnd.microsoft.icon")
-                    .attr("href", themeUri + "/favicon.ico");
-            head.appendElement("link").attr("rel", "icon")
-                    .attr("type", "image/vnd.microsoft.icon")
-                    .attr("href", themeUri + "/favicon.ico");
+    private List<String> getJavaScriptUrls(BootstrapContext context) {
+        JavaScript javaScript = context.getUIClass()
+                .getAnnotation(JavaScript.class);
+        if (javaScript == null) {
+            return Collections.emptyList();
         }
+        return registerDependencies(context, javaScript.value());
+    }
 
-        JavaScript javaScript = uiClass.getAnnotation(JavaScript.class);
-        if (javaScript != null) {
-            String[] resources = javaScript.value();
-            for (String resource : resources) {
-                String url = registerDependency(context, uiClass, resource);
-                head.appendElement("script").attr("type", "text/javascript")
-                        .attr("src", url);
-            }
+    private List<String> getStyleSheetUrls(BootstrapContext context) {
+        StyleSheet styleSheet = context.getUIClass()
+                .getAnnotation(StyleSheet.class);
+        if (styleSheet == null) {
+            return Collections.emptyList();
         }
+        return registerDependencies(context, styleSheet.value());
+    }
 
-        StyleSheet styleSheet = uiClass.getAnnotation(StyleSheet.class);
-        if (styleSheet != null) {
-            String[] resources = styleSheet.value();
-            for (String resource : resources) {
-                String url = registerDependency(context, uiClass, resource);
-                head.appendElement("link").attr("rel", "stylesheet")
-                        .attr("type", "text/css").attr("href", url);
-            }
+    private List<String> registerDependencies(BootstrapContext context,
+            String[] resources) {
+        List<String> urls = new ArrayList<String>(resources.length);
+        for (String resource : resources) {
+            urls.add(registerDependency(context, context.getUIClass(),
+                    resource));
         }
-
-        Element body = document.body();
-        body.attr("scroll", "auto");
-        body.addClass(ApplicationConstants.GENERATED_BODY_CLASSNAME);
+        return urls;
     }
 
     private String registerDependency(BootstrapContext context,
@@ -533,9 +657,7 @@ public abstract class BootstrapHandler extends SynchronizedRequestHandler {
 
         VaadinRequest request = context.getRequest();
 
-        VaadinService vaadinService = request.getService();
-        String vaadinLocation = vaadinService.getStaticFileLocation(request)
-                + "/VAADIN/";
+        String vaadinLocation = getVaadinLocation(request);
 
         // Parameter appended to JS to bypass caches after version upgrade.
         String versionQueryParam = "?v=" + Version.getFullVersion();
@@ -556,14 +678,33 @@ public abstract class BootstrapHandler extends SynchronizedRequestHandler {
                     .attr("type", "text/javascript").attr("src", pushJS));
         }
 
-        String bootstrapLocation = vaadinLocation
-                + ApplicationConstants.VAADIN_BOOTSTRAP_JS + versionQueryParam;
         fragmentNodes.add(new Element(Tag.valueOf("script"), "")
                 .attr("type", "text/javascript")
-                .attr("src", bootstrapLocation));
+                .attr("src", getBootstrapLocation(request)));
         Element mainScriptTag = new Element(Tag.valueOf("script"), "")
                 .attr("type", "text/javascript");
 
+        mainScriptTag.appendChild(new DataNode(getMainScriptContents(context),
+                mainScriptTag.baseUri()));
+        fragmentNodes.add(mainScriptTag);
+
+    }
+
+    private static String getVaadinLocation(VaadinRequest request) {
+        return request.getService().getStaticFileLocation(request) + "/VAADIN/";
+    }
+
+    private static String getBootstrapLocation(VaadinRequest request) {
+        // Parameter appended to JS to bypass caches after version upgrade.
+        return getVaadinLocation(request)
+                + ApplicationConstants.VAADIN_BOOTSTRAP_JS + "?v="
+                + Version.getFullVersion();
+    }
+
+    private String getMainScriptContents(BootstrapContext context)
+            throws IOException {
+        String bootstrapLocation = getBootstrapLocation(context.getRequest());
+
         StringBuilder builder = new StringBuilder();
         builder.append("//<![CDATA[\n");
         builder.append("if (!window.vaadin) alert(" + JsonUtil.quote(
@@ -573,10 +714,7 @@ public abstract class BootstrapHandler extends SynchronizedRequestHandler {
         appendMainScriptTagContents(context, builder);
 
         builder.append("//]]>");
-        mainScriptTag.appendChild(
-                new DataNode(builder.toString(), mainScriptTag.baseUri()));
-        fragmentNodes.add(mainScriptTag);
-
+        return builder.toString();
     }
 
     protected void appendMainScriptTagContents(BootstrapContext context,
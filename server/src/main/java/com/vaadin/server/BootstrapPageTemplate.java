@@ -0,0 +1,97 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.io.Serializable;
+
+/**
+ * A rendered bootstrap page split around the parts that differ between
+ * requests: the id of the main div and the contents of the main script tag.
+ * Rendering a page from a template only concatenates strings, whereas building
+ * the page requires creating and serializing a complete document.
+ *
+ * @see BootstrapHandler
+ *
+ * @author Vaadin Ltd
+ * @since 8.0
+ */
+final class BootstrapPageTemplate implements Serializable {
+
+    private final String beforeAppId;
+    private final String beforeMainScript;
+    private final String afterMainScript;
+
+    private BootstrapPageTemplate(String beforeAppId, String beforeMainScript,
+            String afterMainScript) {
+        this.beforeAppId = beforeAppId;
+        this.beforeMainScript = beforeMainScript;
+        this.afterMainScript = afterMainScript;
+    }
+
+    /**
+     * Creates a template from a rendered bootstrap page by locating the main
+     * div id and the main script contents in it.
+     *
+     * @param html
+     *            the rendered bootstrap page, not <code>null</code>
+     * @param appId
+     *            the main div id used when rendering the page, not
+     *            <code>null</code>
+     * @param mainScript
+     *            the main script contents used when rendering the page, not
+     *            <code>null</code>
+     * @return the template, or <code>null</code> if the page does not contain
+     *         the id followed by the script contents
+     */
+    public static BootstrapPageTemplate create(String html, String appId,
+            String mainScript) {
+        String idAttribute = "id=\"" + appId + "\"";
+        int idIndex = html.indexOf(idAttribute);
+        if (idIndex == -1) {
+            return null;
+        }
+        int appIdStart = idIndex + "id=\"".length();
+        int appIdEnd = appIdStart + appId.length();
+
+        int scriptStart = html.indexOf(mainScript, appIdEnd);
+        if (scriptStart == -1) {
+            return null;
+        }
+        int scriptEnd = scriptStart + mainScript.length();
+
+        return new BootstrapPageTemplate(html.substring(0, appIdStart),
+                html.substring(appIdEnd, scriptStart),
+                html.substring(scriptEnd));
+    }
+
+    /**
+     * Renders a bootstrap page using the given main div id and main script
+     * contents.
+     *
+     * @param appId
+     *            the main div id, not <code>null</code>
+     * @param mainScript
+     *            the main script contents, not <code>null</code>
+     * @return the bootstrap page
+     */
+    public String render(String appId, String mainScript) {
+        return new StringBuilder(beforeAppId.length() + appId.length()
+                + beforeMainScript.length() + mainScript.length()
+                + afterMainScript.length()).append(beforeAppId).append(appId)
+                        .append(beforeMainScript).append(mainScript)
+                        .append(afterMainScript).toString();
+    }
+}
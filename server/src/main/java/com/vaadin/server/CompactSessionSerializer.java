@@ -0,0 +1,164 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A {@link SessionSerializer} producing a compact binary format based on Java
+ * serialization.
+ * <p>
+ * Instead of full class descriptors, only class names are written to the
+ * stream and the descriptors of the classes available locally are reused when
+ * reading. This requires that all nodes reading the serialized sessions use
+ * the same versions of the serialized classes, which is normally the case for
+ * the nodes of a cluster running the same application. The serialized data is
+ * additionally compressed using {@link Deflater}.
+ *
+ * @author Vaadin Ltd
+ * @since 8.0
+ */
+public class CompactSessionSerializer implements SessionSerializer {
+
+    private static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<String, Class<?>>();
+
+    static {
+        for (Class<?> type : new Class<?>[] { boolean.class, byte.class,
+                char.class, short.class, int.class, long.class, float.class,
+                double.class, void.class }) {
+            PRIMITIVE_TYPES.put(type.getName(), type);
+        }
+    }
+
+    private final int compressionLevel;
+
+    /**
+     * Creates a new serializer using the {@link Deflater#BEST_SPEED}
+     * compression level.
+     */
+    public CompactSessionSerializer() {
+        this(Deflater.BEST_SPEED);
+    }
+
+    /**
+     * Creates a new serializer using the given compression level.
+     *
+     * @param compressionLevel
+     *            the compression level, from {@link Deflater#NO_COMPRESSION}
+     *            to {@link Deflater#BEST_COMPRESSION}
+     */
+    public CompactSessionSerializer(int compressionLevel) {
+        if (compressionLevel < Deflater.NO_COMPRESSION
+                || compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException(
+                    "Invalid compression level " + compressionLevel);
+        }
+        this.compressionLevel = compressionLevel;
+    }
+
+    @Override
+    public void serialize(VaadinSession session, OutputStream out)
+            throws IOException {
+        Deflater deflater = new Deflater(compressionLevel);
+        try {
+            DeflaterOutputStream deflaterStream = new DeflaterOutputStream(
+                    out, deflater, 8192);
+            ObjectOutputStream objectStream = new CompactObjectOutputStream(
+                    deflaterStream);
+            objectStream.writeObject(session);
+            objectStream.flush();
+            deflaterStream.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public VaadinSession deserialize(InputStream in)
+            throws IOException, ClassNotFoundException {
+        Inflater inflater = new Inflater();
+        try {
+            ObjectInputStream objectStream = new CompactObjectInputStream(
+                    new InflaterInputStream(in, inflater, 8192));
+            return (VaadinSession) objectStream.readObject();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static Class<?> loadClass(String name)
+            throws ClassNotFoundException {
+        Class<?> primitiveType = PRIMITIVE_TYPES.get(name);
+        if (primitiveType != null) {
+            return primitiveType;
+        }
+
+        ClassLoader contextClassLoader = Thread.currentThread()
+                .getContextClassLoader();
+        if (contextClassLoader != null) {
+            try {
+                return Class.forName(name, false, contextClassLoader);
+            } catch (ClassNotFoundException e) {
+                // Try with the class loader of the framework instead
+            }
+        }
+        return Class.forName(name, false,
+                CompactSessionSerializer.class.getClassLoader());
+    }
+
+    private static class CompactObjectOutputStream extends ObjectOutputStream {
+
+        public CompactObjectOutputStream(OutputStream out) throws IOException {
+            super(out);
+        }
+
+        @Override
+        protected void writeClassDescriptor(ObjectStreamClass desc)
+                throws IOException {
+            writeUTF(desc.getName());
+        }
+    }
+
+    private static class CompactObjectInputStream extends ObjectInputStream {
+
+        public CompactObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected ObjectStreamClass readClassDescriptor()
+                throws IOException, ClassNotFoundException {
+            return ObjectStreamClass.lookupAny(loadClass(readUTF()));
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc)
+                throws IOException, ClassNotFoundException {
+            return loadClass(desc.getName());
+        }
+    }
+}
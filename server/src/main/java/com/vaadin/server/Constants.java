@@ -50,6 +50,31 @@ public interface Constants {
             + "in web.xml. The default of 5min will be used.\n"
             + "===========================================================";
 
+    static final String WARNING_MAX_REPLAYABLE_RESPONSE_SIZE_NOT_NUMERIC = "\n"
+            + "===========================================================\n"
+            + "WARNING: maxReplayableResponseSize has been set to a non integer "
+            + "value in web.xml. The default of 0 will be used and responses "
+            + "will not be kept for replaying.\n"
+            + "===========================================================";
+
+    static final String WARNING_STATIC_RESOURCE_CACHE_SIZE_NOT_NUMERIC = "\n"
+            + "===========================================================\n"
+            + "WARNING: staticResourceCacheSize has been set to a non integer "
+            + "value in web.xml. The default of 16777216 will be used.\n"
+            + "===========================================================";
+
+    static final String WARNING_SESSION_REAPER_INTERVAL_NOT_NUMERIC = "\n"
+            + "===========================================================\n"
+            + "WARNING: sessionReaperInterval has been set to a non integer "
+            + "value in web.xml. The session reaper will be disabled.\n"
+            + "===========================================================";
+
+    static final String WARNING_SESSION_REAPER_MAX_SESSIONS_NOT_NUMERIC = "\n"
+            + "===========================================================\n"
+            + "WARNING: sessionReaperMaxSessions has been set to a non integer "
+            + "value in web.xml. The default of 100 will be used.\n"
+            + "===========================================================";
+
     static final String WARNING_PUSH_MODE_NOT_RECOGNIZED = "\n"
             + "===========================================================\n"
             + "WARNING: pushMode has been set to an unrecognized value\n"
@@ -116,6 +141,11 @@ public interface Constants {
     static final String SERVLET_PARAMETER_SYNC_ID_CHECK = "syncIdCheck";
     static final String SERVLET_PARAMETER_SENDURLSASPARAMETERS = "sendUrlsAsParameters";
     static final String SERVLET_PARAMETER_PUSH_SUSPEND_TIMEOUT_LONGPOLLING = "pushLongPollingSuspendTimeout";
+    static final String SERVLET_PARAMETER_SESSION_REAPER_INTERVAL = "sessionReaperInterval";
+    static final String SERVLET_PARAMETER_SESSION_REAPER_MAX_SESSIONS = "sessionReaperMaxSessions";
+    static final String SERVLET_PARAMETER_STATIC_RESOURCE_CACHE_SIZE = "staticResourceCacheSize";
+    static final String SERVLET_PARAMETER_MAX_REPLAYABLE_RESPONSE_SIZE = "maxReplayableResponseSize";
+    static final String SERVLET_PARAMETER_UIDL_STREAMING = "uidlStreaming";
     /**
      * Name of system or context property to write declarative syntax with the
      * old "v-" prefix or with the new "vaadin-" prefix. The default value
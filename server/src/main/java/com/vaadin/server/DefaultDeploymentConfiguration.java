@@ -54,6 +54,42 @@ public class DefaultDeploymentConfiguration
 
     public static final boolean DEFAULT_SEND_URLS_AS_PARAMETERS = true;
 
+    /**
+     * Default value for {@link #isUidlStreamingEnabled()} = {@value} .
+     *
+     * @since 8.0
+     */
+    public static final boolean DEFAULT_UIDL_STREAMING = false;
+
+    /**
+     * Default value for {@link #getMaxReplayableResponseSize()} = {@value} ,
+     * i.e. responses are not kept for replaying.
+     *
+     * @since 8.0
+     */
+    public static final int DEFAULT_MAX_REPLAYABLE_RESPONSE_SIZE = 0;
+
+    /**
+     * Default value for {@link #getStaticResourceCacheSize()} = {@value} .
+     *
+     * @since 8.0
+     */
+    public static final int DEFAULT_STATIC_RESOURCE_CACHE_SIZE = 16777216;
+
+    /**
+     * Default value for {@link #getSessionReaperInterval()} = {@value} .
+     *
+     * @since 8.0
+     */
+    public static final int DEFAULT_SESSION_REAPER_INTERVAL = 0;
+
+    /**
+     * Default value for {@link #getSessionReaperMaxSessions()} = {@value} .
+     *
+     * @since 8.0
+     */
+    public static final int DEFAULT_SESSION_REAPER_MAX_SESSIONS = 100;
+
     private final Properties initParameters;
     private boolean productionMode;
     private boolean xsrfProtectionEnabled;
@@ -64,6 +100,11 @@ public class DefaultDeploymentConfiguration
     private final Class<?> systemPropertyBaseClass;
     private boolean syncIdCheck;
     private boolean sendUrlsAsParameters;
+    private boolean uidlStreaming;
+    private int maxReplayableResponseSize;
+    private int staticResourceCacheSize;
+    private int sessionReaperInterval;
+    private int sessionReaperMaxSessions;
 
     /**
      * Create a new deployment configuration instance.
@@ -88,6 +129,11 @@ public class DefaultDeploymentConfiguration
         checkPushMode();
         checkSyncIdCheck();
         checkSendUrlsAsParameters();
+        checkUidlStreaming();
+        checkMaxReplayableResponseSize();
+        checkStaticResourceCacheSize();
+        checkSessionReaperInterval();
+        checkSessionReaperMaxSessions();
     }
 
     @Override
@@ -245,6 +291,56 @@ public class DefaultDeploymentConfiguration
         return sendUrlsAsParameters;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The default value is <code>false</code>.
+     */
+    @Override
+    public boolean isUidlStreamingEnabled() {
+        return uidlStreaming;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The default value is <code>32768</code>.
+     */
+    @Override
+    public int getMaxReplayableResponseSize() {
+        return maxReplayableResponseSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The default value is <code>16777216 (16 MiB)</code>.
+     */
+    @Override
+    public int getStaticResourceCacheSize() {
+        return staticResourceCacheSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The default value is <code>0</code>, i.e. the session reaper is not run.
+     */
+    @Override
+    public int getSessionReaperInterval() {
+        return sessionReaperInterval;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The default value is <code>100</code>.
+     */
+    @Override
+    public int getSessionReaperMaxSessions() {
+        return sessionReaperMaxSessions;
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -342,6 +438,60 @@ public class DefaultDeploymentConfiguration
                         .equals("true");
     }
 
+    private void checkUidlStreaming() {
+        uidlStreaming = getApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_UIDL_STREAMING,
+                Boolean.toString(DEFAULT_UIDL_STREAMING)).equals("true");
+    }
+
+    private void checkMaxReplayableResponseSize() {
+        try {
+            maxReplayableResponseSize = Integer.parseInt(getApplicationOrSystemProperty(
+                    Constants.SERVLET_PARAMETER_MAX_REPLAYABLE_RESPONSE_SIZE,
+                    Integer.toString(DEFAULT_MAX_REPLAYABLE_RESPONSE_SIZE)));
+        } catch (NumberFormatException e) {
+            getLogger().warning(
+                    Constants.WARNING_MAX_REPLAYABLE_RESPONSE_SIZE_NOT_NUMERIC);
+            maxReplayableResponseSize = DEFAULT_MAX_REPLAYABLE_RESPONSE_SIZE;
+        }
+    }
+
+    private void checkStaticResourceCacheSize() {
+        try {
+            staticResourceCacheSize = Integer.parseInt(getApplicationOrSystemProperty(
+                    Constants.SERVLET_PARAMETER_STATIC_RESOURCE_CACHE_SIZE,
+                    Integer.toString(DEFAULT_STATIC_RESOURCE_CACHE_SIZE)));
+        } catch (NumberFormatException e) {
+            getLogger().warning(
+                    Constants.WARNING_STATIC_RESOURCE_CACHE_SIZE_NOT_NUMERIC);
+            staticResourceCacheSize = DEFAULT_STATIC_RESOURCE_CACHE_SIZE;
+        }
+    }
+
+    private void checkSessionReaperInterval() {
+        try {
+            sessionReaperInterval = Integer.parseInt(getApplicationOrSystemProperty(
+                    Constants.SERVLET_PARAMETER_SESSION_REAPER_INTERVAL,
+                    Integer.toString(DEFAULT_SESSION_REAPER_INTERVAL)));
+        } catch (NumberFormatException e) {
+            getLogger().warning(
+                    Constants.WARNING_SESSION_REAPER_INTERVAL_NOT_NUMERIC);
+            sessionReaperInterval = DEFAULT_SESSION_REAPER_INTERVAL;
+        }
+    }
+
+    private void checkSessionReaperMaxSessions() {
+        try {
+            sessionReaperMaxSessions = Integer.parseInt(getApplicationOrSystemProperty(
+                    Constants.SERVLET_PARAMETER_SESSION_REAPER_MAX_SESSIONS,
+                    Integer.toString(DEFAULT_SESSION_REAPER_MAX_SESSIONS)));
+        } catch (NumberFormatException e) {
+            getLogger().warning(
+                    Constants.WARNING_SESSION_REAPER_MAX_SESSIONS_NOT_NUMERIC);
+            sessionReaperMaxSessions = DEFAULT_SESSION_REAPER_MAX_SESSIONS;
+        }
+    }
+
     private Logger getLogger() {
         return Logger.getLogger(getClass().getName());
     }
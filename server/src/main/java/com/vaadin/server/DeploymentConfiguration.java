@@ -108,6 +108,75 @@ public interface DeploymentConfiguration extends Serializable {
      */
     public PushMode getPushMode();
 
+    /**
+     * Returns whether UIDL responses should be written directly to the
+     * response stream instead of first being collected into a string. Streaming
+     * reduces memory usage for large responses, but a failure while writing
+     * can no longer be replaced by a refresh message.
+     *
+     * @since 8.0
+     * @return true if UIDL responses should be streamed, false otherwise
+     */
+    public default boolean isUidlStreamingEnabled() {
+        return DefaultDeploymentConfiguration.DEFAULT_UIDL_STREAMING;
+    }
+
+    /**
+     * Returns the maximum length, in characters, of a UIDL response that is
+     * kept so that it can be sent again if the client resends the message it
+     * was a response to. Resent messages with no kept response cause the whole
+     * UI to be repainted. 0 means that no responses are kept, which is the
+     * default.
+     * <p>
+     * Each UI keeps its last response if it is not longer than this, so
+     * enabling replaying can increase the memory usage of each UI by up to
+     * twice this number of bytes.
+     *
+     * @since 8.0
+     * @return the maximum length of a kept response in characters
+     */
+    public default int getMaxReplayableResponseSize() {
+        return DefaultDeploymentConfiguration.DEFAULT_MAX_REPLAYABLE_RESPONSE_SIZE;
+    }
+
+    /**
+     * Returns the maximum total size, in bytes, of the static resources from
+     * the VAADIN directory that are kept in memory by the servlet in production
+     * mode. Cached resources are served without accessing the file system or
+     * class path and with an ETag. 0 means that no resources are cached.
+     *
+     * @since 8.0
+     * @return the maximum size of the static resource cache in bytes
+     */
+    public default int getStaticResourceCacheSize() {
+        return DefaultDeploymentConfiguration.DEFAULT_STATIC_RESOURCE_CACHE_SIZE;
+    }
+
+    /**
+     * Returns the number of seconds between runs of the background task that
+     * closes and removes UIs whose heartbeat has expired, without waiting for
+     * the next request to their session. 0 or a negative value means that
+     * inactive UIs are only removed at the end of requests.
+     *
+     * @since 8.0
+     * @return the interval of the session reaper in seconds
+     */
+    public default int getSessionReaperInterval() {
+        return DefaultDeploymentConfiguration.DEFAULT_SESSION_REAPER_INTERVAL;
+    }
+
+    /**
+     * Returns the maximum number of sessions checked for inactive UIs by a
+     * single run of the session reaper. Sessions not checked in one run are
+     * checked in the following runs.
+     *
+     * @since 8.0
+     * @return the maximum number of sessions checked per session reaper run
+     */
+    public default int getSessionReaperMaxSessions() {
+        return DefaultDeploymentConfiguration.DEFAULT_SESSION_REAPER_MAX_SESSIONS;
+    }
+
     /**
      * Gets the properties configured for the deployment, e.g. as init
      * parameters to the servlet or portlet.
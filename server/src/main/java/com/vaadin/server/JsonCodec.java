@@ -20,10 +20,12 @@ import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.GenericArrayType;
-import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -107,16 +109,49 @@ public class JsonCodec implements Serializable {
         public Type getType();
     }
 
+    /**
+     * Type of the method handles used for reading bean properties. Handles
+     * adapted to this type can be called using
+     * {@link MethodHandle#invokeExact(Object...)} without any reflection.
+     */
+    private static final MethodType GETTER_TYPE = MethodType
+            .methodType(Object.class, Object.class);
+
+    private static Object invokeGetter(MethodHandle getter, Object bean)
+            throws Exception {
+        try {
+            return getter.invokeExact(bean);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+
     private static class FieldProperty implements BeanProperty {
         private final Field field;
+        /* null if the field is only accessible through reflection */
+        private final transient MethodHandle getter;
 
         public FieldProperty(Field field) {
             this.field = field;
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.publicLookup().unreflectGetter(field)
+                        .asType(GETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                // Not accessible through a method handle
+                handle = null;
+            }
+            getter = handle;
         }
 
         @Override
         public Object getValue(Object bean) throws Exception {
-            return field.get(bean);
+            if (getter == null) {
+                return field.get(bean);
+            }
+            return invokeGetter(getter, bean);
         }
 
         @Override
@@ -152,15 +187,33 @@ public class JsonCodec implements Serializable {
 
     private static class MethodProperty implements BeanProperty {
         private final PropertyDescriptor pd;
+        private final String name;
+        /* null if the read method is only accessible through reflection */
+        private final transient MethodHandle getter;
 
         public MethodProperty(PropertyDescriptor pd) {
             this.pd = pd;
+
+            String fieldName = pd.getWriteMethod().getName().substring(3);
+            name = Character.toLowerCase(fieldName.charAt(0))
+                    + fieldName.substring(1);
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.publicLookup()
+                        .unreflect(pd.getReadMethod()).asType(GETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                // Not accessible through a method handle
+                handle = null;
+            }
+            getter = handle;
         }
 
         @Override
         public Object getValue(Object bean) throws Exception {
-            Method readMethod = pd.getReadMethod();
-            return readMethod.invoke(bean);
+            if (getter == null) {
+                return pd.getReadMethod().invoke(bean);
+            }
+            return invokeGetter(getter, bean);
         }
 
         @Override
@@ -170,10 +223,7 @@ public class JsonCodec implements Serializable {
 
         @Override
         public String getName() {
-            String fieldName = pd.getWriteMethod().getName().substring(3);
-            fieldName = Character.toLowerCase(fieldName.charAt(0))
-                    + fieldName.substring(1);
-            return fieldName;
+            return name;
         }
 
         public static Collection<MethodProperty> find(Class<?> type)
@@ -687,7 +737,7 @@ public class JsonCodec implements Serializable {
                 // encodeObject returns an EncodeResult with a diff, thus it
                 // needs to return it directly rather than assigning it to
                 // toReturn.
-                return encodeObject(value, (Class<?>) valueType,
+                return encodeObject(value, (Class<?>) valueType, null,
                         (JsonObject) diffState, connectorTracker);
             }
         } else {
@@ -713,17 +763,50 @@ public class JsonCodec implements Serializable {
         return properties;
     }
 
+    /**
+     * Encodes only the given properties of a bean. The encoded value of the
+     * result contains only the encoded properties and the diff contains the
+     * properties that differ from the corresponding properties of the
+     * reference value.
+     *
+     * @since 8.0
+     * @param value
+     *            the bean to encode, not null
+     * @param valueType
+     *            the type of the bean
+     * @param propertyNames
+     *            the names of the properties to encode
+     * @param referenceValue
+     *            the previously encoded value to compare to, or null to
+     *            compare to nothing
+     * @param connectorTracker
+     *            the connector tracker to use for encoding connectors
+     * @return the encode result for the given properties
+     */
+    public static EncodeResult encodeProperties(Object value,
+            Class<?> valueType, Collection<String> propertyNames,
+            JsonObject referenceValue, ConnectorTracker connectorTracker) {
+        return encodeObject(value, valueType, propertyNames, referenceValue,
+                connectorTracker);
+    }
+
     /*
-     * Loops through the fields of value and encodes them.
+     * Loops through the fields of value and encodes them. If propertyNames is
+     * not null, only the listed fields are encoded.
      */
     private static EncodeResult encodeObject(Object value, Class<?> valueType,
-            JsonObject referenceValue, ConnectorTracker connectorTracker) {
+            Collection<String> propertyNames, JsonObject referenceValue,
+            ConnectorTracker connectorTracker) {
         JsonObject encoded = Json.createObject();
         JsonObject diff = Json.createObject();
 
         try {
             for (BeanProperty property : getProperties(valueType)) {
                 String fieldName = property.getName();
+                if (propertyNames != null
+                        && !propertyNames.contains(fieldName)) {
+                    continue;
+                }
                 // We can't use PropertyDescriptor.getPropertyType() as it does
                 // not support generics
                 Type fieldType = property.getType();
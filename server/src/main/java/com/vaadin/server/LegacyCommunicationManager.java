@@ -20,6 +20,7 @@ import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.GeneralSecurityException;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -99,11 +100,7 @@ public class LegacyCommunicationManager implements Serializable {
         if (diffState == null && supportsDiffState) {
             // Use an empty state object as reference for full
             // repaints
-            diffState = referenceDiffStates.get(stateType);
-            if (diffState == null) {
-                diffState = createReferenceDiffStateState(stateType);
-                referenceDiffStates.put(stateType, diffState);
-            }
+            diffState = getReferenceDiffState(stateType);
         }
         EncodeResult encodeResult = JsonCodec.encode(state, diffState,
                 stateType, uI.getConnectorTracker());
@@ -114,6 +111,65 @@ public class LegacyCommunicationManager implements Serializable {
         return (JsonObject) encodeResult.getDiff();
     }
 
+    /**
+     * Encodes the changes to the given fields of the shared state of a
+     * connector. Falls back to encoding the whole state if all fields might
+     * have changed or if there is no previous state to compare to.
+     *
+     * @since 8.0
+     * @param connector
+     *            the connector whose state to encode
+     * @param state
+     *            the shared state of the connector
+     * @param changedFields
+     *            the names of the fields that have changed, or
+     *            <code>null</code> if any field might have changed
+     * @return the JSON of the fields that differ from what the client has
+     */
+    public static JsonObject encodeState(ClientConnector connector,
+            SharedState state, Collection<String> changedFields) {
+        Class<? extends SharedState> stateType = connector.getStateType();
+        ConnectorTracker connectorTracker = connector.getUI()
+                .getConnectorTracker();
+        JsonObject diffState = connectorTracker.getDiffState(connector);
+        if (changedFields == null || diffState == null
+                || JavaScriptConnectorState.class
+                        .isAssignableFrom(stateType)) {
+            return encodeState(connector, state);
+        }
+
+        EncodeResult encodeResult = JsonCodec.encodeProperties(state,
+                stateType, changedFields, diffState, connectorTracker);
+        JsonObject encoded = (JsonObject) encodeResult.getEncodedValue();
+        for (String fieldName : encoded.keys()) {
+            JsonValue value = encoded.get(fieldName);
+            diffState.put(fieldName, value);
+        }
+        return (JsonObject) encodeResult.getDiff();
+    }
+
+    /**
+     * Gets the encoded form of a newly created state object of the given type.
+     * The returned object is shared and must not be modified.
+     *
+     * @since 8.0
+     * @param stateType
+     *            the shared state type
+     * @return the encoded default state, or <code>null</code> if no instance
+     *         of the state type could be created
+     */
+    public static JsonObject getReferenceDiffState(
+            Class<? extends SharedState> stateType) {
+        JsonValue referenceState = referenceDiffStates.get(stateType);
+        if (referenceState == null) {
+            referenceState = createReferenceDiffStateState(stateType);
+            if (referenceState != null) {
+                referenceDiffStates.put(stateType, referenceState);
+            }
+        }
+        return (JsonObject) referenceState;
+    }
+
     private static JsonValue createReferenceDiffStateState(
             Class<? extends SharedState> stateType) {
         try {
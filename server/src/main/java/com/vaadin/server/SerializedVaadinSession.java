@@ -0,0 +1,154 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+import javax.servlet.http.HttpSessionBindingEvent;
+import javax.servlet.http.HttpSessionBindingListener;
+
+/**
+ * Holder stored in the HTTP session instead of the {@link VaadinSession} when
+ * a {@link SessionSerializer} is in use. Serializes the session using the
+ * serializer and keeps the serialized form until the session is modified, so
+ * that serializing an unchanged session again, e.g. when the container
+ * replicates it to several nodes, is cheap.
+ *
+ * @author Vaadin Ltd
+ * @since 8.0
+ */
+final class SerializedVaadinSession
+        implements Serializable, HttpSessionBindingListener {
+
+    private final SessionSerializer serializer;
+
+    private transient VaadinSession session;
+
+    private transient byte[] serializedSession;
+
+    private transient int serializedModificationCount;
+
+    /**
+     * Creates a new holder for the given session.
+     *
+     * @param session
+     *            the session to hold, not <code>null</code>
+     * @param serializer
+     *            the serializer to use, not <code>null</code>
+     */
+    public SerializedVaadinSession(VaadinSession session,
+            SessionSerializer serializer) {
+        this.session = session;
+        this.serializer = serializer;
+    }
+
+    /**
+     * Returns the VaadinSession stored in the given HTTP session attribute
+     * value.
+     *
+     * @param value
+     *            the attribute value, may be <code>null</code>
+     * @return the VaadinSession or <code>null</code> if the value is neither a
+     *         VaadinSession nor a holder of one
+     */
+    public static VaadinSession getVaadinSession(Object value) {
+        if (value instanceof SerializedVaadinSession) {
+            return ((SerializedVaadinSession) value).getSession();
+        } else if (value instanceof VaadinSession) {
+            return (VaadinSession) value;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the held session.
+     *
+     * @return the session, not <code>null</code>
+     */
+    public VaadinSession getSession() {
+        return session;
+    }
+
+    /**
+     * Gets the serialized form of the session, serializing it only if it has
+     * been modified since it was last serialized.
+     *
+     * @return the serialized session
+     * @throws IOException
+     *             if serialization fails
+     */
+    synchronized byte[] getSerializedSession() throws IOException {
+        // Read before serializing so that concurrent modifications cause the
+        // session to be serialized again the next time
+        int modificationCount = session.getModificationCount();
+        if (serializedSession == null
+                || serializedModificationCount != modificationCount) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            serializer.serialize(session, buffer);
+            serializedSession = buffer.toByteArray();
+            serializedModificationCount = modificationCount;
+        }
+        return serializedSession;
+    }
+
+    @Override
+    public void valueBound(HttpSessionBindingEvent event) {
+        // Nothing to do
+    }
+
+    @Override
+    public void valueUnbound(HttpSessionBindingEvent event) {
+        // Storing the session again to trigger replication must not close it
+        if (!isStillBound(event)) {
+            session.valueUnbound(event);
+        }
+    }
+
+    private boolean isStillBound(HttpSessionBindingEvent event) {
+        try {
+            return getVaadinSession(event.getSession()
+                    .getAttribute(event.getName())) == session;
+        } catch (IllegalStateException e) {
+            // The HTTP session has been invalidated
+            return false;
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        byte[] bytes = getSerializedSession();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        session = serializer.deserialize(new ByteArrayInputStream(bytes));
+
+        // The deserialized session is unchanged until it is used
+        serializedSession = bytes;
+        serializedModificationCount = session.getModificationCount();
+    }
+}
@@ -15,19 +15,73 @@
  */
 package com.vaadin.server;
 
+import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Type;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import com.vaadin.shared.annotations.Delayed;
+import com.vaadin.shared.annotations.LastOnly;
 import com.vaadin.shared.communication.MethodInvocation;
 import com.vaadin.shared.communication.ServerRpc;
 
 public class ServerRpcMethodInvocation extends MethodInvocation {
 
-    private static final Map<String, Method> invocationMethodCache = new ConcurrentHashMap<String, Method>(
+    /**
+     * An RPC method together with the information needed for decoding its
+     * parameters and invoking it, resolved once per method.
+     */
+    private static class InvocationMethod implements Serializable {
+        private final Method method;
+        private final Type[] parameterTypes;
+        private final Class<?>[] rawParameterTypes;
+        /*
+         * Parameter types with primitive types replaced by their wrappers,
+         * used for checking the arguments before invoking the method handle
+         */
+        private final Class<?>[] argumentTypes;
+        private final boolean lastOnly;
+        /*
+         * Handle taking the target and an array of arguments, or null if the
+         * method can't be accessed through a method handle
+         */
+        private final transient MethodHandle invoker;
+
+        private InvocationMethod(Method method) {
+            this.method = method;
+            parameterTypes = method.getGenericParameterTypes();
+            rawParameterTypes = method.getParameterTypes();
+            argumentTypes = MethodType
+                    .methodType(void.class, rawParameterTypes).wrap()
+                    .parameterArray();
+
+            Delayed delayed = method.getAnnotation(Delayed.class);
+            lastOnly = method.isAnnotationPresent(LastOnly.class)
+                    || (delayed != null && delayed.lastOnly());
+
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.publicLookup().unreflect(method);
+                handle = handle
+                        .asType(handle.type().generic()
+                                .changeReturnType(void.class))
+                        .asSpreader(Object[].class, parameterTypes.length);
+            } catch (IllegalAccessException e) {
+                handle = null;
+            }
+            invoker = handle;
+        }
+    }
+
+    private static final Map<String, InvocationMethod> invocationMethodCache = new ConcurrentHashMap<String, InvocationMethod>(
             128, 0.75f, 1);
 
-    private final Method method;
+    private final InvocationMethod invocationMethod;
 
     private final Class<? extends ServerRpc> interfaceClass;
 
@@ -39,7 +93,7 @@ public class ServerRpcMethodInvocation extends MethodInvocation {
         assert ServerRpc.class.isAssignableFrom(interfaceClass);
         this.interfaceClass = interfaceClass;
 
-        method = findInvocationMethod(interfaceClass, methodName,
+        invocationMethod = findInvocationMethod(interfaceClass, methodName,
                 parameterCount);
     }
 
@@ -48,7 +102,89 @@ public class ServerRpcMethodInvocation extends MethodInvocation {
     }
 
     public Method getMethod() {
-        return method;
+        return invocationMethod.method;
+    }
+
+    /**
+     * Gets the generic parameter types of the invoked method. The returned
+     * array is shared and must not be modified.
+     *
+     * @since 8.0
+     * @return the generic parameter types of the method
+     */
+    public Type[] getGenericParameterTypes() {
+        return invocationMethod.parameterTypes;
+    }
+
+    /**
+     * Checks whether only the last invocation of the invoked method should be
+     * executed if the method is invoked multiple times for the same connector
+     * in a message.
+     *
+     * @see LastOnly
+     * @see Delayed#lastOnly()
+     * @since 8.0
+     * @return <code>true</code> if earlier invocations of the method can be
+     *         ignored, otherwise <code>false</code>
+     */
+    public boolean isLastOnly() {
+        return invocationMethod.lastOnly;
+    }
+
+    /**
+     * Invokes the method on the given target with the parameters of this
+     * invocation. A method handle resolved once per method is used when
+     * possible instead of reflection.
+     *
+     * @param target
+     *            the object to invoke the method on
+     * @throws IllegalAccessException
+     *             if the method can't be accessed
+     * @throws InvocationTargetException
+     *             if the invoked method throws an exception
+     */
+    void invoke(Object target)
+            throws IllegalAccessException, InvocationTargetException {
+        MethodHandle invoker = invocationMethod.invoker;
+        if (invoker == null) {
+            invocationMethod.method.invoke(target, getParameters());
+            return;
+        }
+        Object[] parameters = getParameters();
+        // Invalid arguments are reported like reflection does, so that any
+        // exception from the handle comes from the invoked method
+        checkArguments(target, parameters);
+        try {
+            invoker.invokeExact(target, parameters);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    private void checkArguments(Object target, Object[] parameters) {
+        Method method = invocationMethod.method;
+        if (!method.getDeclaringClass().isInstance(target)) {
+            if (target == null) {
+                throw new NullPointerException();
+            }
+            throw new IllegalArgumentException(
+                    "object is not an instance of declaring class");
+        }
+
+        Class<?>[] rawParameterTypes = invocationMethod.rawParameterTypes;
+        Class<?>[] argumentTypes = invocationMethod.argumentTypes;
+        int parameterCount = parameters == null ? 0 : parameters.length;
+        if (parameterCount != argumentTypes.length) {
+            throw new IllegalArgumentException("wrong number of arguments");
+        }
+        for (int i = 0; i < parameterCount; i++) {
+            Object parameter = parameters[i];
+            if (parameter == null
+                    ? rawParameterTypes[i].isPrimitive()
+                    : !argumentTypes[i].isInstance(parameter)) {
+                throw new IllegalArgumentException("argument type mismatch");
+            }
+        }
     }
 
     /**
@@ -61,19 +197,21 @@ public class ServerRpcMethodInvocation extends MethodInvocation {
      * @param parameterCount
      * @return
      */
-    private Method findInvocationMethod(Class<?> targetType, String methodName,
-            int parameterCount) {
+    private InvocationMethod findInvocationMethod(Class<?> targetType,
+            String methodName, int parameterCount) {
         // TODO currently only using method name and number of parameters as the
         // signature
         String signature = targetType.getName() + "." + methodName + "("
                 + parameterCount;
-        Method invocationMethod = invocationMethodCache.get(signature);
+        InvocationMethod invocationMethod = invocationMethodCache
+                .get(signature);
 
         if (invocationMethod == null) {
-            invocationMethod = doFindInvocationMethod(targetType, methodName,
+            Method method = doFindInvocationMethod(targetType, methodName,
                     parameterCount);
 
-            if (invocationMethod != null) {
+            if (method != null) {
+                invocationMethod = new InvocationMethod(method);
                 invocationMethodCache.put(signature, invocationMethod);
             }
         }
@@ -100,9 +238,8 @@ public class ServerRpcMethodInvocation extends MethodInvocation {
             String methodName, int parameterCount) {
         Method[] methods = targetType.getMethods();
         for (Method method : methods) {
-            Class<?>[] parameterTypes = method.getParameterTypes();
             if (method.getName().equals(methodName)
-                    && parameterTypes.length == parameterCount) {
+                    && method.getParameterCount() == parameterCount) {
                 return method;
             }
         }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+/**
+ * Strategy for converting a {@link VaadinSession} to bytes when the underlying
+ * HTTP session is serialized, e.g. for replication to other nodes in a
+ * cluster.
+ * <p>
+ * When a serializer has been set using
+ * {@link VaadinService#setSessionSerializer(SessionSerializer)}, the
+ * VaadinSession is stored in the HTTP session inside a holder which uses the
+ * serializer when the container serializes the HTTP session. The serializer
+ * itself is serialized using regular Java serialization along with the
+ * serialized session and used for deserializing it.
+ *
+ * @see CompactSessionSerializer
+ *
+ * @author Vaadin Ltd
+ * @since 8.0
+ */
+public interface SessionSerializer extends Serializable {
+
+    /**
+     * Writes the given session to the given stream. The stream should not be
+     * closed by this method.
+     *
+     * @param session
+     *            the session to serialize, not <code>null</code>
+     * @param out
+     *            the stream to write to, not <code>null</code>
+     * @throws IOException
+     *             if writing the session fails
+     */
+    public void serialize(VaadinSession session, OutputStream out)
+            throws IOException;
+
+    /**
+     * Reads a session written by
+     * {@link #serialize(VaadinSession, OutputStream)} from the given stream.
+     *
+     * @param in
+     *            the stream to read from, not <code>null</code>
+     * @return the deserialized session, not <code>null</code>
+     * @throws IOException
+     *             if reading the session fails
+     * @throws ClassNotFoundException
+     *             if a class of a serialized object cannot be found
+     */
+    public VaadinSession deserialize(InputStream in)
+            throws IOException, ClassNotFoundException;
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A bounded in-memory cache of the static resources served by
+ * {@link VaadinServlet} from the VAADIN directory. For each resource, the
+ * contents of both the resource and its precompressed {@code .gz} variant are
+ * cached, as well as the fact that there is no precompressed variant. The least
+ * recently used resources are evicted when the total size of the cached
+ * contents exceeds the maximum size.
+ * <p>
+ * The cache assumes that the resources do not change, so it should only be
+ * used in production mode.
+ *
+ * @since 8.0
+ * @author Vaadin Ltd
+ */
+class StaticResourceCache implements Serializable {
+
+    /**
+     * The cached contents of a single static resource.
+     */
+    static class CachedResource implements Serializable {
+        private final byte[] content;
+        private final byte[] gzipContent;
+        private final long lastModified;
+        private final String hash;
+
+        private CachedResource(byte[] content, byte[] gzipContent,
+                long lastModified) {
+            this.content = content;
+            this.gzipContent = gzipContent;
+            this.lastModified = lastModified;
+            hash = computeHash(content);
+        }
+
+        /**
+         * Gets the contents of the resource.
+         *
+         * @param gzip
+         *            <code>true</code> to get the precompressed contents,
+         *            <code>false</code> to get the original contents
+         * @return the contents
+         */
+        public byte[] getContent(boolean gzip) {
+            return gzip ? gzipContent : content;
+        }
+
+        /**
+         * Checks whether the resource has a precompressed variant.
+         *
+         * @return <code>true</code> if there is a precompressed variant,
+         *         otherwise <code>false</code>
+         */
+        public boolean hasGzipContent() {
+            return gzipContent != null;
+        }
+
+        /**
+         * Gets the last modification time of the resource, rounded down to
+         * whole seconds.
+         *
+         * @return the last modification timestamp, or 0 if not known
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Gets a strong entity tag for the original or precompressed contents
+         * of the resource.
+         *
+         * @param gzip
+         *            <code>true</code> to get the tag of the precompressed
+         *            contents, <code>false</code> for the original contents
+         * @return the quoted entity tag
+         */
+        public String getETag(boolean gzip) {
+            return '"' + hash + (gzip ? "-gzip" : "") + '"';
+        }
+
+        private int getSize() {
+            return content.length
+                    + (gzipContent == null ? 0 : gzipContent.length);
+        }
+    }
+
+    /**
+     * The maximum number of resource URLs and uncacheable resources to
+     * remember. The file names are taken from requests, so the same resource
+     * can be requested using any number of different names.
+     */
+    static final int MAX_URLS = 1000;
+
+    private final int maxSize;
+    private final int maxResourceSize;
+
+    private final Map<String, URL> resourceUrls = Collections
+            .synchronizedMap(createBoundedMap(MAX_URLS));
+
+    /*
+     * Resources that are too large to be cached, so that they are not read
+     * into memory for every request. Only contains existing resources.
+     */
+    private final Set<String> uncacheableUrls = Collections
+            .synchronizedSet(Collections
+                    .newSetFromMap(createBoundedMap(MAX_URLS)));
+
+    /* Guarded by synchronizing on the map */
+    private final LinkedHashMap<String, CachedResource> resources = new LinkedHashMap<String, CachedResource>(
+            16, 0.75f, true);
+    private int size = 0;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxSize
+     *            the maximum total size of the cached contents in bytes
+     */
+    public StaticResourceCache(int maxSize) {
+        this.maxSize = maxSize;
+        // Don't let a single resource take over the whole cache
+        maxResourceSize = maxSize / 8;
+    }
+
+    /**
+     * Gets the previously stored URL of the resource with the given file name.
+     *
+     * @param filename
+     *            the file name of the resource
+     * @return the URL of the resource, or <code>null</code> if no URL has been
+     *         stored
+     */
+    public URL getResourceURL(String filename) {
+        return resourceUrls.get(filename);
+    }
+
+    /**
+     * Stores the URL of the resource with the given file name so that it
+     * doesn't need to be looked up again.
+     *
+     * @param filename
+     *            the file name of the resource
+     * @param resourceUrl
+     *            the URL of the resource, not <code>null</code>
+     */
+    public void putResourceURL(String filename, URL resourceUrl) {
+        resourceUrls.put(filename, resourceUrl);
+    }
+
+    /**
+     * Gets the cached contents of the resource at the given URL without
+     * loading it.
+     *
+     * @param resourceUrl
+     *            the URL of the resource
+     * @return the cached resource, or <code>null</code> if the resource is not
+     *         cached
+     */
+    public CachedResource getCachedResource(URL resourceUrl) {
+        synchronized (resources) {
+            return resources.get(resourceUrl.toExternalForm());
+        }
+    }
+
+    /**
+     * Gets the cached contents of the resource at the given URL, loading the
+     * resource and its precompressed variant into the cache if necessary.
+     *
+     * @param resourceUrl
+     *            the URL of the resource
+     * @return the cached resource, or <code>null</code> if the resource could
+     *         not be loaded or is too large to be cached
+     */
+    public CachedResource getResource(URL resourceUrl) {
+        String key = resourceUrl.toExternalForm();
+        CachedResource resource;
+        synchronized (resources) {
+            resource = resources.get(key);
+        }
+        if (resource != null || uncacheableUrls.contains(key)) {
+            return resource;
+        }
+
+        try {
+            resource = loadResource(resourceUrl);
+        } catch (IOException e) {
+            getLogger().log(Level.FINE,
+                    "Could not load resource " + key + " into the cache", e);
+            return null;
+        }
+
+        if (resource == null) {
+            uncacheableUrls.add(key);
+            return null;
+        }
+
+        synchronized (resources) {
+            CachedResource previous = resources.put(key, resource);
+            if (previous != null) {
+                size -= previous.getSize();
+            }
+            size += resource.getSize();
+
+            Iterator<CachedResource> iterator = resources.values().iterator();
+            while (size > maxSize && iterator.hasNext()) {
+                size -= iterator.next().getSize();
+                iterator.remove();
+            }
+        }
+        return resource;
+    }
+
+    private static <K, V> Map<K, V> createBoundedMap(int maxEntries) {
+        return new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    private CachedResource loadResource(URL resourceUrl) throws IOException {
+        URLConnection connection = resourceUrl.openConnection();
+        long lastModified = connection.getLastModified();
+        // Remove milliseconds to make the value comparable with
+        // If-Modified-Since
+        lastModified -= lastModified % 1000;
+
+        byte[] content = readContent(connection);
+        if (content == null) {
+            return null;
+        }
+
+        byte[] gzipContent = null;
+        try {
+            gzipContent = readContent(
+                    new URL(resourceUrl.toExternalForm() + ".gz")
+                            .openConnection());
+            if (gzipContent == null) {
+                return null;
+            }
+        } catch (IOException e) {
+            // No precompressed variant, which is also remembered
+        }
+
+        CachedResource resource = new CachedResource(content, gzipContent,
+                lastModified);
+        if (resource.getSize() > maxResourceSize) {
+            return null;
+        }
+        return resource;
+    }
+
+    /**
+     * Reads the contents from the given connection, unless the contents are
+     * too large to be cached.
+     *
+     * @return the contents, or <code>null</code> if the contents are too large
+     */
+    private byte[] readContent(URLConnection connection) throws IOException {
+        int length = connection.getContentLength();
+        InputStream is = connection.getInputStream();
+        try {
+            if (length > maxResourceSize) {
+                return null;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(
+                    length > 0 ? length : Constants.DEFAULT_BUFFER_SIZE);
+            byte[] buffer = new byte[Constants.DEFAULT_BUFFER_SIZE];
+            int bytes;
+            while ((bytes = is.read(buffer)) >= 0) {
+                out.write(buffer, 0, bytes);
+                if (out.size() > maxResourceSize) {
+                    return null;
+                }
+            }
+            return out.toByteArray();
+        } finally {
+            is.close();
+        }
+    }
+
+    private static String computeHash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(content);
+            StringBuilder hash = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hash.append(Character.forDigit((b >> 4) & 0xf, 16));
+                hash.append(Character.forDigit(b & 0xf, 16));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-1 is not available", e);
+        }
+    }
+
+    private static Logger getLogger() {
+        return Logger.getLogger(StaticResourceCache.class.getName());
+    }
+}
@@ -355,15 +355,16 @@ public class VaadinPortletService extends VaadinService {
     protected void writeToHttpSession(WrappedSession wrappedSession,
             VaadinSession session) {
         getWrappedPortletSession(wrappedSession).setAttribute(
-                getSessionAttributeName(), session,
+                getSessionAttributeName(), createSessionAttribute(session),
                 PortletSession.APPLICATION_SCOPE);
     }
 
     @Override
     protected VaadinSession readFromHttpSession(WrappedSession wrappedSession) {
-        return (VaadinSession) getWrappedPortletSession(wrappedSession)
-                .getAttribute(getSessionAttributeName(),
-                        PortletSession.APPLICATION_SCOPE);
+        return SerializedVaadinSession.getVaadinSession(
+                getWrappedPortletSession(wrappedSession).getAttribute(
+                        getSessionAttributeName(),
+                        PortletSession.APPLICATION_SCOPE));
     }
 
     @Override
@@ -35,8 +35,12 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
@@ -132,6 +136,8 @@ public abstract class VaadinService implements Serializable {
 
     private ClassLoader classLoader;
 
+    private SessionSerializer sessionSerializer;
+
     private Iterable<RequestHandler> requestHandlers;
 
     private boolean atmosphereAvailable = checkAtmosphereSupport();
@@ -148,6 +154,25 @@ public abstract class VaadinService implements Serializable {
      */
     private boolean initialized = false;
 
+    /**
+     * Executor for framework tasks that should be run after a delay, created
+     * lazily by {@link #getScheduledExecutor()}.
+     */
+    private transient ScheduledExecutorService scheduledExecutor;
+
+    /**
+     * Sessions that are checked for inactive UIs by the session reaper, or
+     * <code>null</code> if the reaper is not in use. The keys are weak so that
+     * sessions invalidated by the container can be garbage collected.
+     */
+    private transient Map<VaadinSession, Boolean> reapableSessions;
+
+    /**
+     * Index of the session where the next session reaper run starts. Only
+     * used by the thread running the reaper.
+     */
+    private int nextReapedSessionIndex = 0;
+
     /**
      * Creates a new vaadin service based on a deployment configuration
      *
@@ -193,9 +218,37 @@ public abstract class VaadinService implements Serializable {
         Collections.reverse(handlers);
         requestHandlers = Collections.unmodifiableCollection(handlers);
 
+        startSessionReaper();
+
         initialized = true;
     }
 
+    /**
+     * Schedules the session reaper to run at the interval given by
+     * {@link DeploymentConfiguration#getSessionReaperInterval()}, unless it is
+     * disabled.
+     */
+    private void startSessionReaper() {
+        int interval = getDeploymentConfiguration().getSessionReaperInterval();
+        if (interval <= 0) {
+            return;
+        }
+        reapableSessions = Collections
+                .synchronizedMap(new WeakHashMap<VaadinSession, Boolean>());
+        getScheduledExecutor().scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    reapInactiveUIs();
+                } catch (RuntimeException e) {
+                    // An exception would cancel all subsequent runs
+                    getLogger().log(Level.WARNING,
+                            "Error while closing inactive UIs", e);
+                }
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+
     /**
      * Called during initialization to add the request handlers for the service.
      * Note that the returned list will be reversed so the last handler will be
@@ -212,11 +265,13 @@ public abstract class VaadinService implements Serializable {
         ArrayList<RequestHandler> handlers = new ArrayList<RequestHandler>();
         handlers.add(new SessionRequestHandler());
         handlers.add(new PublishedFileHandler());
-        handlers.add(new HeartbeatHandler());
         handlers.add(new FileUploadHandler());
         handlers.add(new UidlRequestHandler());
         handlers.add(new UnsupportedBrowserHandler());
         handlers.add(new ConnectorResourceHandler());
+        // Handlers are run in reverse order. Heartbeats do not lock the
+        // session, so they should not pass through handlers that do.
+        handlers.add(new HeartbeatHandler());
 
         return handlers;
     }
@@ -362,6 +417,45 @@ public abstract class VaadinService implements Serializable {
         return systemMessagesProvider;
     }
 
+    /**
+     * Sets the serializer used for serializing the sessions of this service
+     * when the underlying HTTP session is serialized, e.g. for replicating it
+     * to other nodes in a cluster. Only affects sessions stored after calling
+     * this method, so it should be set right after the service has been
+     * created, e.g. by overriding
+     * {@link VaadinServlet#createServletService(DeploymentConfiguration)}.
+     * <p>
+     * When a serializer is in use, a modified session is stored in the HTTP
+     * session again at the end of each request, so that containers that only
+     * replicate changed attributes replicate the session. Sessions that have
+     * not been modified, e.g. by heartbeat requests, are not stored again and
+     * their serialized form is reused.
+     *
+     * @see CompactSessionSerializer
+     *
+     * @since 8.0
+     * @param sessionSerializer
+     *            the session serializer to use, or <code>null</code> to store
+     *            sessions directly in the HTTP session using regular Java
+     *            serialization
+     */
+    public void setSessionSerializer(SessionSerializer sessionSerializer) {
+        this.sessionSerializer = sessionSerializer;
+    }
+
+    /**
+     * Gets the serializer used for serializing the sessions of this service.
+     *
+     * @see #setSessionSerializer(SessionSerializer)
+     *
+     * @since 8.0
+     * @return the session serializer, or <code>null</code> if sessions are
+     *         serialized using regular Java serialization
+     */
+    public SessionSerializer getSessionSerializer() {
+        return sessionSerializer;
+    }
+
     /**
      * Gets the system message to use for a specific locale. This method may
      * also be implemented to use information from current instances of various
@@ -658,6 +752,11 @@ public abstract class VaadinService implements Serializable {
 
     private VaadinSession findOrCreateVaadinSession(VaadinRequest request)
             throws SessionExpiredException, ServiceException {
+        VaadinSession heartbeatSession = findHeartbeatSession(request);
+        if (heartbeatSession != null) {
+            return heartbeatSession;
+        }
+
         boolean requestCanCreateSession = requestCanCreateSession(request);
         WrappedSession wrappedSession = getWrappedSession(request,
                 requestCanCreateSession);
@@ -677,6 +776,46 @@ public abstract class VaadinService implements Serializable {
 
     }
 
+    /**
+     * Finds the session of a heartbeat request without locking it, so that
+     * heartbeats do not wait for requests that hold the lock. Only a session
+     * which has already been loaded by this service is returned. The session
+     * is looked up with the session locked as usual if this returns
+     * <code>null</code>.
+     *
+     * @param request
+     *            the request
+     * @return the session of the heartbeat request, or <code>null</code> if
+     *         the request is not a heartbeat request or its session must be
+     *         looked up with the session locked
+     */
+    private VaadinSession findHeartbeatSession(VaadinRequest request) {
+        if (!ServletPortletHelper.isHeartbeatRequest(request)
+                || hasParameter(request, URL_PARAMETER_RESTART_APPLICATION)
+                || hasParameter(request, URL_PARAMETER_CLOSE_APPLICATION)) {
+            return null;
+        }
+
+        WrappedSession wrappedSession = request.getWrappedSession(false);
+        if (wrappedSession == null) {
+            return null;
+        }
+
+        VaadinSession session;
+        try {
+            session = readFromHttpSession(wrappedSession);
+        } catch (IllegalStateException e) {
+            // Invalidated, handled by the regular lookup
+            return null;
+        }
+        // The service is not set for a session that has been deserialized but
+        // not yet loaded with the session locked
+        if (session == null || session.getService() != this) {
+            return null;
+        }
+        return session;
+    }
+
     /**
      * Finds or creates a Vaadin session. Assumes necessary synchronization has
      * been done by the caller to ensure this is not called simultaneously by
@@ -1054,9 +1193,10 @@ public abstract class VaadinService implements Serializable {
                 attributeNames.size() * 2);
         for (String name : attributeNames) {
             Object value = oldSession.getAttribute(name);
-            if (value instanceof VaadinSession) {
+            VaadinSession serviceSession = SerializedVaadinSession
+                    .getVaadinSession(value);
+            if (serviceSession != null) {
                 // set flag to avoid cleanup
-                VaadinSession serviceSession = (VaadinSession) value;
                 serviceSession.setAttribute(PRESERVE_UNBOUND_SESSION_ATTRIBUTE,
                         Boolean.TRUE);
             }
@@ -1076,8 +1216,9 @@ public abstract class VaadinService implements Serializable {
             newSession.setAttribute(name, value);
 
             // Ensure VaadinServiceSession knows where it's stored
-            if (value instanceof VaadinSession) {
-                VaadinSession serviceSession = (VaadinSession) value;
+            VaadinSession serviceSession = SerializedVaadinSession
+                    .getVaadinSession(value);
+            if (serviceSession != null) {
                 VaadinService service = serviceSession.getService();
                 // Use the same lock instance in the new session
                 service.setSessionLock(newSession,
@@ -1155,6 +1296,7 @@ public abstract class VaadinService implements Serializable {
      * @param session
      */
     void cleanupSession(VaadinSession session) {
+        session.setLastCleanupTimestamp(System.currentTimeMillis());
         if (isSessionActive(session)) {
             closeInactiveUIs(session);
             removeClosedUIs(session);
@@ -1228,6 +1370,96 @@ public abstract class VaadinService implements Serializable {
         }
     }
 
+    /**
+     * Checks whether a full heartbeat interval has passed since the given
+     * session was last cleaned up. Heartbeat requests only lock the session to
+     * run {@link #cleanupSession(VaadinSession)} when this is the case.
+     *
+     * @param session
+     *            the session to check
+     * @return <code>true</code> if the session should be cleaned up,
+     *         <code>false</code> otherwise
+     */
+    private boolean isCleanupDue(VaadinSession session) {
+        long interval = getDeploymentConfiguration().getHeartbeatInterval()
+                * 1000L;
+        return System.currentTimeMillis()
+                - session.getLastCleanupTimestamp() >= interval;
+    }
+
+    /**
+     * Registers the given session to be checked for inactive UIs by the
+     * session reaper. Does nothing if the reaper is not in use. This is called
+     * whenever a session is stored or loaded, so that also sessions
+     * deserialized from the HTTP session are checked, but the shared map of
+     * sessions is only updated the first time for each session instance.
+     *
+     * @param session
+     *            the session to register, not <code>null</code>
+     */
+    void registerReapableSession(VaadinSession session) {
+        if (reapableSessions != null && session.markReaperRegistered()) {
+            reapableSessions.put(session, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Closes and removes the inactive UIs of the registered sessions. Run
+     * periodically by the session reaper so that the component trees of UIs
+     * whose heartbeat has expired are released even if no further requests
+     * are made to the session. At most
+     * {@link DeploymentConfiguration#getSessionReaperMaxSessions()} sessions
+     * are checked by one run; the following run continues with the next
+     * sessions.
+     * <p>
+     * The work is done using {@link VaadinSession#access(Runnable)}, so the
+     * reaper does not wait for sessions that are locked by a request. The
+     * inactive UIs of such a session are instead closed by the thread holding
+     * the lock, before it releases it. When a session serializer is in use, a
+     * session from which the reaper removed UIs is stored in the HTTP session
+     * again so that the change is replicated.
+     */
+    void reapInactiveUIs() {
+        if (reapableSessions == null) {
+            return;
+        }
+        List<VaadinSession> sessions;
+        synchronized (reapableSessions) {
+            sessions = new ArrayList<VaadinSession>(reapableSessions.keySet());
+        }
+        if (sessions.isEmpty()) {
+            return;
+        }
+
+        int count = Math.min(sessions.size(), Math.max(1,
+                getDeploymentConfiguration().getSessionReaperMaxSessions()));
+        int start = nextReapedSessionIndex % sessions.size();
+        for (int i = 0; i < count; i++) {
+            final VaadinSession session = sessions
+                    .get((start + i) % sessions.size());
+            if (session.getState() == State.CLOSED) {
+                reapableSessions.remove(session);
+            } else if (session.getSession() != null) {
+                final AtomicBoolean uisRemoved = new AtomicBoolean();
+                Future<Void> future = session.access(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (isSessionActive(session)) {
+                            int uiCount = session.getUIs().size();
+                            closeInactiveUIs(session);
+                            removeClosedUIs(session);
+                            uisRemoved.set(session.getUIs().size() != uiCount);
+                        }
+                    }
+                });
+                if (future.isDone() && uisRemoved.get()) {
+                    storeModifiedSession(session);
+                }
+            }
+        }
+        nextReapedSessionIndex = (start + count) % sessions.size();
+    }
+
     /**
      * Returns the number of seconds that must pass without a valid heartbeat or
      * UIDL request being received from a UI before that UI is removed from its
@@ -1359,6 +1591,15 @@ public abstract class VaadinService implements Serializable {
             VaadinSession session) {
         if (session != null) {
             assert VaadinSession.getCurrent() == session;
+            if (ServletPortletHelper.isHeartbeatRequest(request)
+                    && !isCleanupDue(session)) {
+                // Heartbeats are handled without locking the session, so avoid
+                // locking it here as well unless cleanup has not been done
+                // for a full heartbeat interval
+                storeModifiedSession(session);
+                CurrentInstance.clearAll();
+                return;
+            }
             session.lock();
             try {
                 cleanupSession(session);
@@ -1368,10 +1609,35 @@ public abstract class VaadinService implements Serializable {
             } finally {
                 session.unlock();
             }
+            storeModifiedSession(session);
         }
         CurrentInstance.clearAll();
     }
 
+    /**
+     * Stores the given session in the underlying HTTP session again if a
+     * session serializer is in use and the session has been modified since it
+     * was last stored.
+     *
+     * @param session
+     *            the session to store
+     */
+    private void storeModifiedSession(VaadinSession session) {
+        WrappedSession wrappedSession = session.getSession();
+        if (sessionSerializer == null || wrappedSession == null
+                || session.getState() != State.OPEN
+                || !session.isModifiedSinceStored()) {
+            return;
+        }
+        try {
+            writeToHttpSession(wrappedSession, session);
+        } catch (IllegalStateException e) {
+            // The HTTP session has been invalidated by another request
+            getLogger().log(Level.FINE,
+                    "Could not store session in invalidated HTTP session", e);
+        }
+    }
+
     /**
      * Returns the request handlers that are registered with this service. The
      * iteration order of the returned collection is the same as the order in
@@ -1902,6 +2168,39 @@ public abstract class VaadinService implements Serializable {
      */
     public void destroy() {
         eventRouter.fireEvent(new ServiceDestroyEvent(this));
+
+        synchronized (this) {
+            if (scheduledExecutor != null) {
+                scheduledExecutor.shutdownNow();
+                scheduledExecutor = null;
+            }
+        }
+    }
+
+    /**
+     * Returns the executor used by the framework for running tasks after a
+     * delay, e.g. for sending push messages that have been deferred to honor
+     * the push coalescing settings of a UI. The executor uses a single daemon
+     * thread, so the tasks should only do a minimal amount of work, such as
+     * enqueuing a task using {@link VaadinSession#access(Runnable)}.
+     * <p>
+     * The executor is created when this method is first called and it is shut
+     * down when this service is destroyed.
+     *
+     * @since 8.0
+     * @return the scheduled executor for this service, not <code>null</code>
+     */
+    public synchronized ScheduledExecutorService getScheduledExecutor() {
+        if (scheduledExecutor == null) {
+            scheduledExecutor = Executors
+                    .newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable,
+                                "Vaadin scheduled tasks");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        return scheduledExecutor;
     }
 
     /**
@@ -1942,6 +2241,7 @@ public abstract class VaadinService implements Serializable {
         assert VaadinSession.hasLock(this, wrappedSession);
         writeToHttpSession(wrappedSession, session);
         session.refreshTransients(wrappedSession, this);
+        registerReapableSession(session);
     }
 
     /**
@@ -1958,7 +2258,25 @@ public abstract class VaadinService implements Serializable {
      */
     protected void writeToHttpSession(WrappedSession wrappedSession,
             VaadinSession session) {
-        wrappedSession.setAttribute(getSessionAttributeName(), session);
+        wrappedSession.setAttribute(getSessionAttributeName(),
+                createSessionAttribute(session));
+    }
+
+    /**
+     * Creates the value to store in the underlying HTTP session for the given
+     * session. This is the session itself unless a
+     * {@link #getSessionSerializer() session serializer} is in use.
+     *
+     * @param session
+     *            the session to store
+     * @return the value to store as an attribute of the HTTP session
+     */
+    Object createSessionAttribute(VaadinSession session) {
+        session.markStored();
+        if (sessionSerializer == null) {
+            return session;
+        }
+        return new SerializedVaadinSession(session, sessionSerializer);
     }
 
     /**
@@ -1978,6 +2296,7 @@ public abstract class VaadinService implements Serializable {
             return null;
         }
         vaadinSession.refreshTransients(wrappedSession, this);
+        registerReapableSession(vaadinSession);
         return vaadinSession;
     }
 
@@ -1993,8 +2312,8 @@ public abstract class VaadinService implements Serializable {
      * @return the VaadinSession or null if no session was found
      */
     protected VaadinSession readFromHttpSession(WrappedSession wrappedSession) {
-        return (VaadinSession) wrappedSession
-                .getAttribute(getSessionAttributeName());
+        return SerializedVaadinSession.getVaadinSession(
+                wrappedSession.getAttribute(getSessionAttributeName()));
     }
 
     /**
@@ -54,6 +54,7 @@ import javax.servlet.http.HttpServletResponse;
 import com.vaadin.annotations.VaadinServletConfiguration;
 import com.vaadin.annotations.VaadinServletConfiguration.InitParameterName;
 import com.vaadin.sass.internal.ScssStylesheet;
+import com.vaadin.server.StaticResourceCache.CachedResource;
 import com.vaadin.server.communication.ServletUIInitHandler;
 import com.vaadin.shared.JsonConstants;
 import com.vaadin.shared.Version;
@@ -183,6 +184,12 @@ public class VaadinServlet extends HttpServlet implements Constants {
 
     private VaadinServletService servletService;
 
+    /*
+     * Cache for static resources in the VAADIN directory, or null if resources
+     * should not be cached
+     */
+    private transient StaticResourceCache staticResourceCache;
+
     /**
      * Called by the servlet container to indicate to a servlet that the servlet
      * is being placed into service.
@@ -231,6 +238,14 @@ public class VaadinServlet extends HttpServlet implements Constants {
         // Sets current service even though there are no request and response
         servletService.setCurrentInstances(null, null);
 
+        int staticResourceCacheSize = deploymentConfiguration
+                .getStaticResourceCacheSize();
+        if (deploymentConfiguration.isProductionMode()
+                && staticResourceCacheSize > 0) {
+            staticResourceCache = new StaticResourceCache(
+                    staticResourceCacheSize);
+        }
+
         servletInitialized();
 
         CurrentInstance.clearAll();
@@ -750,7 +765,13 @@ public class VaadinServlet extends HttpServlet implements Constants {
             throws IOException, ServletException {
 
         final ServletContext sc = getServletContext();
-        URL resourceUrl = findResourceURL(filename);
+        URL resourceUrl = null;
+        if (staticResourceCache != null) {
+            resourceUrl = staticResourceCache.getResourceURL(filename);
+        }
+        if (resourceUrl == null) {
+            resourceUrl = findResourceURL(filename);
+        }
 
         if (resourceUrl == null) {
             // File not found, if this was a css request we still look for a
@@ -787,6 +808,17 @@ public class VaadinServlet extends HttpServlet implements Constants {
         response.setDateHeader("Expires",
                 System.currentTimeMillis() + (resourceCacheTime * 1000));
 
+        if (staticResourceCache != null) {
+            staticResourceCache.putResourceURL(filename, resourceUrl);
+            CachedResource cachedResource = staticResourceCache
+                    .getResource(resourceUrl);
+            if (cachedResource != null) {
+                serveCachedResource(filename, request, response, resourceUrl,
+                        cachedResource);
+                return;
+            }
+        }
+
         // Find the modification timestamp
         long lastModifiedTime = 0;
         URLConnection connection = null;
@@ -834,6 +866,61 @@ public class VaadinServlet extends HttpServlet implements Constants {
         writeStaticResourceResponse(request, response, resourceUrl);
     }
 
+    /**
+     * Serves a static resource from the VAADIN directory using the contents in
+     * the static resource cache. Responds with 304 Not Modified if the entity
+     * tag or the modification time sent by the browser matches.
+     */
+    private void serveCachedResource(String filename,
+            HttpServletRequest request, HttpServletResponse response,
+            URL resourceUrl, CachedResource cachedResource)
+            throws IOException {
+        boolean gzip = cachedResource.hasGzipContent()
+                && allowServePrecompressedResource(request,
+                        resourceUrl.toExternalForm());
+        String etag = cachedResource.getETag(gzip);
+        response.setHeader("ETag", etag);
+        if (cachedResource.hasGzipContent()) {
+            response.setHeader("Vary", "Accept-Encoding");
+        }
+        long lastModifiedTime = cachedResource.getLastModified();
+        if (lastModifiedTime > 0) {
+            response.setDateHeader("Last-Modified", lastModifiedTime);
+        }
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null ? containsETag(ifNoneMatch, etag)
+                : browserHasNewestVersion(request, lastModifiedTime)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        final String mimetype = getServletContext().getMimeType(filename);
+        if (mimetype != null) {
+            response.setContentType(mimetype);
+        }
+
+        writeStaticResourceResponse(request, response, resourceUrl);
+    }
+
+    /**
+     * Checks whether the value of an If-None-Match header matches the given
+     * entity tag.
+     */
+    private static boolean containsETag(String ifNoneMatch, String etag) {
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                // Weak comparison is used for If-None-Match
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Calculates the cache lifetime for the given filename in seconds. By
      * default filenames containing ".nocache." return 0, filenames containing
@@ -886,6 +973,23 @@ public class VaadinServlet extends HttpServlet implements Constants {
     protected void writeStaticResourceResponse(HttpServletRequest request,
             HttpServletResponse response, URL resourceUrl) throws IOException {
 
+        if (staticResourceCache != null) {
+            CachedResource cachedResource = staticResourceCache
+                    .getCachedResource(resourceUrl);
+            if (cachedResource != null) {
+                boolean gzip = cachedResource.hasGzipContent()
+                        && allowServePrecompressedResource(request,
+                                resourceUrl.toExternalForm());
+                if (gzip) {
+                    response.setHeader("Content-Encoding", "gzip");
+                }
+                byte[] content = cachedResource.getContent(gzip);
+                response.setContentLength(content.length);
+                response.getOutputStream().write(content);
+                return;
+            }
+        }
+
         URLConnection connection = null;
         InputStream is = null;
         String urlStr = resourceUrl.toExternalForm();
@@ -33,10 +33,12 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
@@ -231,7 +233,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     private LinkedList<RequestHandler> requestHandlers = new LinkedList<RequestHandler>();
 
     private int nextUIId = 0;
-    private Map<Integer, UI> uIs = new HashMap<Integer, UI>();
+    private Map<Integer, UI> uIs = new ConcurrentHashMap<Integer, UI>();
 
     private final Map<String, Integer> embedIdMap = new HashMap<String, Integer>();
 
@@ -251,6 +253,28 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
 
     private long lastRequestTimestamp = System.currentTimeMillis();
 
+    private volatile long lastCleanupTimestamp = System.currentTimeMillis();
+
+    /**
+     * Incremented whenever the session lock is finally released, i.e. whenever
+     * the session may have been modified, and when the session is modified
+     * without holding the lock. Updated atomically since the latter may happen
+     * concurrently with the former.
+     */
+    private transient volatile int modificationCount = 0;
+
+    private static final AtomicIntegerFieldUpdater<VaadinSession> MODIFICATION_COUNT = AtomicIntegerFieldUpdater
+            .newUpdater(VaadinSession.class, "modificationCount");
+
+    private transient volatile int storedModificationCount = 0;
+
+    /**
+     * Whether this session has been registered for the session reaper of the
+     * service. Not serialized so that a deserialized session is registered
+     * again.
+     */
+    private transient volatile boolean reaperRegistered = false;
+
     private State state = State.OPEN;
 
     private transient WrappedSession session;
@@ -381,6 +405,90 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         lastRequestTimestamp = timestamp;
     }
 
+    /**
+     * Sets the time when inactive and closed UIs were last cleaned up from
+     * this session.
+     *
+     * @param timestamp
+     *            the time of the last cleanup, in milliseconds since the epoch
+     */
+    void setLastCleanupTimestamp(long timestamp) {
+        lastCleanupTimestamp = timestamp;
+    }
+
+    /**
+     * Returns the time when inactive and closed UIs were last cleaned up from
+     * this session. Can be called without holding the session lock.
+     *
+     * @return the time of the last cleanup, in milliseconds since the epoch
+     */
+    long getLastCleanupTimestamp() {
+        return lastCleanupTimestamp;
+    }
+
+    /**
+     * Marks this session as registered for the session reaper of the service.
+     * Can be called without holding the session lock.
+     *
+     * @return <code>true</code> if the session was not registered before,
+     *         <code>false</code> if it already was
+     */
+    boolean markReaperRegistered() {
+        if (reaperRegistered) {
+            return false;
+        }
+        reaperRegistered = true;
+        return true;
+    }
+
+    /**
+     * Returns a counter that changes whenever the session lock has been
+     * released, i.e. whenever the session may have been modified. Used for
+     * avoiding serializing and replicating sessions that have not changed.
+     * Can be called without holding the session lock.
+     *
+     * @return the modification counter of this session
+     */
+    int getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Records that this session has been modified without holding the session
+     * lock, e.g. when a heartbeat request updates the heartbeat timestamp of a
+     * UI. This ensures that the modification is included when the session is
+     * stored or replicated the next time.
+     * <p>
+     * This is meant for framework internal use. Modifications made while
+     * holding the session lock are recorded when the lock is released.
+     *
+     * @since 8.0
+     */
+    public void markModified() {
+        MODIFICATION_COUNT.incrementAndGet(this);
+    }
+
+    /**
+     * Marks the current state of this session as stored in the underlying HTTP
+     * session.
+     *
+     * @see #isModifiedSinceStored()
+     */
+    void markStored() {
+        storedModificationCount = modificationCount;
+    }
+
+    /**
+     * Checks whether this session may have been modified since it was last
+     * stored in the underlying HTTP session.
+     *
+     * @return <code>true</code> if the session may have been modified,
+     *         <code>false</code> otherwise
+     */
+    boolean isModifiedSinceStored() {
+        return modificationCount != storedModificationCount;
+    }
+
     /**
      * Returns the time when the last request was serviced in this session.
      *
@@ -462,9 +570,11 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         while (attributeNames.hasMoreElements()) {
             String attributeName = attributeNames.nextElement();
             if (attributeName.startsWith(VaadinSession.class.getName() + ".")) {
-                Object value = httpSession.getAttribute(attributeName);
-                if (value instanceof VaadinSession) {
-                    sessions.add((VaadinSession) value);
+                VaadinSession session = SerializedVaadinSession
+                        .getVaadinSession(
+                                httpSession.getAttribute(attributeName));
+                if (session != null) {
+                    sessions.add(session);
                 }
             }
         }
@@ -759,7 +869,9 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     /**
      * Returns a UI with the given id.
      * <p>
-     * This is meant for framework internal use.
+     * This is meant for framework internal use. The session lock is not
+     * required, which allows e.g. heartbeat requests to find their UI without
+     * locking the session.
      * </p>
      *
      * @param uiId
@@ -767,7 +879,6 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return The UI with the given id or null if not found
      */
     public UI getUIById(int uiId) {
-        assert hasLock();
         return uIs.get(uiId);
     }
 
@@ -831,6 +942,20 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
                 BOOTSTRAP_PAGE_METHOD);
     }
 
+    /**
+     * Checks whether any bootstrap listeners have been added to this session.
+     *
+     * @see #addBootstrapListener(BootstrapListener)
+     *
+     * @return <code>true</code> if there are bootstrap listeners, otherwise
+     *         <code>false</code>
+     */
+    boolean hasBootstrapListeners() {
+        assert hasLock();
+        return eventRouter.hasListeners(BootstrapFragmentResponse.class)
+                || eventRouter.hasListeners(BootstrapPageResponse.class);
+    }
+
     /**
      * Fires a bootstrap event to all registered listeners. There are currently
      * two supported events, both inheriting from {@link BootstrapResponse}:
@@ -997,6 +1122,9 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
                 }
             }
         } finally {
+            if (ultimateRelease) {
+                MODIFICATION_COUNT.incrementAndGet(this);
+            }
             getLockInstance().unlock();
         }
 
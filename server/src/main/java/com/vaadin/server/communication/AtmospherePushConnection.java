@@ -23,6 +23,8 @@ import java.io.Serializable;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -36,7 +38,9 @@ import org.atmosphere.cpr.AtmosphereResource.TRANSPORT;
 import org.atmosphere.util.Version;
 
 import com.vaadin.shared.communication.PushConstants;
+import com.vaadin.ui.PushConfiguration;
 import com.vaadin.ui.UI;
+import com.vaadin.ui.UIDetachedException;
 
 /**
  * A {@link PushConnection} implementation using the Atmosphere push support
@@ -133,9 +137,21 @@ public class AtmospherePushConnection implements PushConnection {
 
     private UI ui;
     private transient State state = State.DISCONNECTED;
-    private transient AtmosphereResource resource;
+    /*
+     * Volatile since shared messages are sent without locking the session,
+     * see sendSharedMessage
+     */
+    private transient volatile AtmosphereResource resource;
     private transient FragmentedMessage incomingMessage;
     private transient Future<Object> outgoingMessage;
+    /* Time when the previous message was pushed, in milliseconds */
+    private transient long lastPushTime = 0;
+    /* Whether a deferred push has been scheduled but not yet run */
+    private transient boolean deferredPushScheduled = false;
+    /* Time when a push was first deferred since the previous message, or 0 */
+    private transient long pushDeferredTime = 0;
+    /* Shared messages to send after the next push, see queueSharedMessage */
+    private transient List<String> queuedSharedMessages;
 
     public AtmospherePushConnection(UI ui) {
         this.ui = ui;
@@ -149,7 +165,8 @@ public class AtmospherePushConnection implements PushConnection {
     /**
      * Pushes pending state changes and client RPC calls to the client. If
      * {@code isConnected()} is false, defers the push until a connection is
-     * established.
+     * established. An asynchronous push is also deferred if required by the
+     * push coalescing settings in the {@link PushConfiguration} of the UI.
      *
      * @param async
      *            True if this push asynchronously originates from the server,
@@ -162,17 +179,113 @@ public class AtmospherePushConnection implements PushConnection {
             } else {
                 state = State.RESPONSE_PENDING;
             }
+        } else if (async && isPushDeferred()) {
+            scheduleDeferredPush();
         } else {
             try {
                 Writer writer = new StringWriter();
                 new UidlWriter().write(getUI(), writer, async);
                 sendMessage("for(;;);[{" + writer.toString() + "}]");
+                lastPushTime = System.currentTimeMillis();
+                pushDeferredTime = 0;
+                sendQueuedSharedMessages();
             } catch (Exception e) {
                 throw new RuntimeException("Push failed", e);
             }
         }
     }
 
+    /**
+     * Checks whether an asynchronous push should be deferred to coalesce it
+     * with subsequent changes, based on the push configuration of the UI.
+     *
+     * @return <code>true</code> if the push should be deferred,
+     *         <code>false</code> to push right away
+     */
+    private boolean isPushDeferred() {
+        PushConfiguration configuration = getUI().getPushConfiguration();
+        if (configuration.getMinPushInterval() <= 0) {
+            return false;
+        }
+
+        int maxPendingChanges = configuration.getMaxPendingChanges();
+        if (maxPendingChanges > 0 && getUI().getConnectorTracker()
+                .getDirtyConnectors().size() >= maxPendingChanges) {
+            return false;
+        }
+
+        int maxPushLatency = configuration.getMaxPushLatency();
+        if (maxPushLatency > 0 && pushDeferredTime > 0 && System
+                .currentTimeMillis() - pushDeferredTime >= maxPushLatency) {
+            return false;
+        }
+
+        return getTimeUntilNextPush() > 0
+                || (outgoingMessage != null && !outgoingMessage.isDone());
+    }
+
+    private long getTimeUntilNextPush() {
+        return lastPushTime
+                + getUI().getPushConfiguration().getMinPushInterval()
+                - System.currentTimeMillis();
+    }
+
+    /**
+     * Schedules a push of the changes pending in the UI after the minimum push
+     * interval has elapsed, or earlier if required by the maximum push
+     * latency, unless such a push is already scheduled.
+     */
+    private void scheduleDeferredPush() {
+        long now = System.currentTimeMillis();
+        if (pushDeferredTime == 0) {
+            pushDeferredTime = now;
+        }
+        if (deferredPushScheduled) {
+            return;
+        }
+        deferredPushScheduled = true;
+
+        final UI ui = getUI();
+        PushConfiguration configuration = ui.getPushConfiguration();
+        long delay = getTimeUntilNextPush();
+        if (delay <= 0) {
+            // Deferred because the previous message is still being sent
+            delay = configuration.getMinPushInterval();
+        }
+        int maxPushLatency = configuration.getMaxPushLatency();
+        if (maxPushLatency > 0) {
+            delay = Math.max(0, Math.min(delay,
+                    pushDeferredTime + maxPushLatency - now));
+        }
+
+        ui.getSession().getService().getScheduledExecutor()
+                .schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            ui.access(new Runnable() {
+                                @Override
+                                public void run() {
+                                    runDeferredPush();
+                                }
+                            });
+                        } catch (UIDetachedException e) {
+                            // Nothing to push to a detached UI
+                        }
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void runDeferredPush() {
+        deferredPushScheduled = false;
+        UI ui = getUI();
+        if (ui.getPushConnection() == this
+                && ui.getConnectorTracker().hasDirtyConnectors()) {
+            // Pushes again or schedules a new deferred push
+            ui.push();
+        }
+    }
+
     /**
      * Sends the given message to the current client. Cannot be called if
      * {@isConnected()} is false.
@@ -187,6 +300,71 @@ public class AtmospherePushConnection implements PushConnection {
                 getResource());
     }
 
+    /**
+     * Sends a complete message that has been serialized once and is shared
+     * between UIs, e.g. by {@link UIBroadcaster}. The message is not written
+     * by {@link UidlWriter} and must thus not depend on the state of the UI.
+     * It should have the sync id -1 so that the client handles it without
+     * checking the order of the messages.
+     * <p>
+     * Unlike other methods of this class, this method can be called without
+     * holding the lock of the session of the UI, to avoid locking every
+     * session when the same message is sent to many UIs.
+     *
+     * @since 8.0
+     * @param message
+     *            the message to send, not <code>null</code>
+     * @return <code>true</code> if the message was sent, <code>false</code>
+     *         if the connection is not connected
+     */
+    public boolean sendSharedMessage(String message) {
+        AtmosphereResource resource = this.resource;
+        if (resource == null) {
+            return false;
+        }
+        resource.getBroadcaster().broadcast(message, resource);
+        return true;
+    }
+
+    /**
+     * Queues a shared message to be sent after the message of the next push,
+     * for instance when the connector the message is targeted to has not yet
+     * been sent to the client or when the connection is not connected. The
+     * session must be locked.
+     *
+     * @see #sendSharedMessage(String)
+     * @since 8.0
+     * @param message
+     *            the message to send, not <code>null</code>
+     */
+    public void queueSharedMessage(String message) {
+        if (queuedSharedMessages == null) {
+            queuedSharedMessages = new ArrayList<String>();
+        }
+        queuedSharedMessages.add(message);
+    }
+
+    /**
+     * Checks whether there are queued shared messages waiting for the next
+     * push. The session must be locked.
+     *
+     * @return <code>true</code> if there are queued shared messages,
+     *         otherwise <code>false</code>
+     */
+    boolean hasQueuedSharedMessages() {
+        return queuedSharedMessages != null;
+    }
+
+    private void sendQueuedSharedMessages() {
+        if (queuedSharedMessages == null) {
+            return;
+        }
+        for (String message : queuedSharedMessages) {
+            sendMessage(message);
+        }
+        queuedSharedMessages = null;
+    }
+
     /**
      * Reads and buffers a (possibly partial) message. If a complete message was
      * received, or if the call resulted in the completion of a partially
@@ -36,6 +36,10 @@ import com.vaadin.ui.UI;
  * no UIDL requests for a prolonged period of time. UIs that do not receive
  * either heartbeat or UIDL requests are eventually removed from the session and
  * garbage collected.
+ * <p>
+ * Heartbeat requests are handled without locking the session, since they only
+ * update the {@link UI#getLastHeartbeatTimestamp() heartbeat timestamp} of the
+ * UI and would otherwise compete for the lock with requests doing actual work.
  *
  * @author Vaadin Ltd
  * @since 7.1
@@ -48,19 +52,44 @@ public class HeartbeatHandler extends SynchronizedRequestHandler
         return ServletPortletHelper.isHeartbeatRequest(request);
     }
 
+    /**
+     * Handles a heartbeat request without locking the session. The UI is
+     * found using {@link #findUI(VaadinSession, VaadinRequest)} and updated
+     * using {@link #handleHeartbeat(UI)}.
+     */
+    @Override
+    public boolean handleRequest(VaadinSession session, VaadinRequest request,
+            VaadinResponse response) throws IOException {
+        if (!canHandleRequest(request)) {
+            return false;
+        }
+
+        return handleHeartbeatRequest(session, request, response);
+    }
+
     /**
      * Handles a heartbeat request for the given session. Reads the GET
      * parameter named {@link UIConstants#UI_ID_PARAMETER} to identify the UI.
      * If the UI is found in the session, sets it
      * {@link UI#getLastHeartbeatTimestamp() heartbeat timestamp} to the current
      * time. Otherwise, writes a HTTP Not Found error to the response.
+     * <p>
+     * The session must be locked when calling this method. Heartbeat requests
+     * dispatched through
+     * {@link #handleRequest(VaadinSession, VaadinRequest, VaadinResponse)} are
+     * handled without locking the session and do not call this method.
      */
     @Override
     public boolean synchronizedHandleRequest(VaadinSession session,
             VaadinRequest request, VaadinResponse response) throws IOException {
-        UI ui = session.getService().findUI(request);
+        return handleHeartbeatRequest(session, request, response);
+    }
+
+    private boolean handleHeartbeatRequest(VaadinSession session,
+            VaadinRequest request, VaadinResponse response) throws IOException {
+        UI ui = findUI(session, request);
         if (ui != null) {
-            ui.setLastHeartbeatTimestamp(System.currentTimeMillis());
+            handleHeartbeat(ui);
             // Ensure that the browser does not cache heartbeat responses.
             // iOS 6 Safari requires this (#10370)
             response.setHeader("Cache-Control", "no-cache");
@@ -75,6 +104,49 @@ public class HeartbeatHandler extends SynchronizedRequestHandler
         return true;
     }
 
+    /**
+     * Records a heartbeat for the given UI by setting its
+     * {@link UI#getLastHeartbeatTimestamp() heartbeat timestamp} to the current
+     * time. The session is not necessarily locked when this method is called,
+     * so it must only do things that are safe without the lock.
+     *
+     * @since 8.0
+     * @param ui
+     *            the UI that sent the heartbeat, not <code>null</code>
+     */
+    protected void handleHeartbeat(UI ui) {
+        ui.setLastHeartbeatTimestamp(System.currentTimeMillis());
+        // The session lock is not necessarily held, so the modification must
+        // be recorded explicitly for the session to be replicated
+        VaadinSession session = ui.getSession();
+        if (session != null) {
+            session.markModified();
+        }
+    }
+
+    /**
+     * Finds the UI targeted by the given heartbeat request without locking the
+     * session.
+     *
+     * @param session
+     *            the session of the request, not <code>null</code>
+     * @param request
+     *            the heartbeat request, not <code>null</code>
+     * @return the UI identified by the request, or <code>null</code> if no such
+     *         UI is found in the session
+     */
+    protected UI findUI(VaadinSession session, VaadinRequest request) {
+        String uiIdString = request.getParameter(UIConstants.UI_ID_PARAMETER);
+        if (uiIdString == null) {
+            return null;
+        }
+        try {
+            return session.getUIById(Integer.parseInt(uiIdString));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -145,6 +145,8 @@ public class PushHandler {
             assert vaadinRequest != null;
 
             try {
+                // Kept responses are only resent for UIDL requests
+                ui.setLastUidlResponse(null);
                 new ServerRpcHandler().handleRpc(ui, reader, vaadinRequest);
                 connection.push(false);
             } catch (JsonException e) {
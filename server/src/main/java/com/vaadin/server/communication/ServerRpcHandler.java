@@ -23,6 +23,7 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
@@ -200,6 +201,17 @@ public class ServerRpcHandler implements Serializable {
         }
     }
 
+    /**
+     * Name of the request attribute containing the previously written response
+     * that should be sent again instead of a new response. Set by
+     * {@link #handleRpc(UI, Reader, VaadinRequest)} when the client resends
+     * the last processed message and the response to it has been kept.
+     *
+     * @since 8.0
+     */
+    public static final String REPLAYED_RESPONSE_ATTRIBUTE = ServerRpcHandler.class
+            .getName() + ".replayedResponse";
+
     private static final int MAX_BUFFER_SIZE = 64 * 1024;
 
     /**
@@ -250,8 +262,17 @@ public class ServerRpcHandler implements Serializable {
             // have generated a response for the first message but the response
             // did not reach the client. When the client re-sends the message,
             // it would only get an empty response (because the dirty flags have
-            // been cleared on the server) and would be out of sync
-            ui.getSession().getCommunicationManager().repaintAll(ui);
+            // been cleared on the server) and would be out of sync. If the
+            // response to the last message is still available, it is enough to
+            // send it again.
+            String lastResponse = ui.getLastUidlResponse();
+            if (rpcRequest.getClientToServerId() == expectedId - 1
+                    && lastResponse != null && !rpcRequest.isResynchronize()) {
+                request.setAttribute(REPLAYED_RESPONSE_ATTRIBUTE,
+                        lastResponse);
+            } else {
+                ui.getSession().getCommunicationManager().repaintAll(ui);
+            }
 
             if (rpcRequest.getClientToServerId() < expectedId) {
                 // Just a duplicate message due to a bad connection or similar
@@ -511,9 +532,33 @@ public class ServerRpcHandler implements Serializable {
                 previousInvocation = invocation;
             }
         }
+        removeSupersededInvocations(invocations);
         return invocations;
     }
 
+    /**
+     * Removes all but the last invocation of each RPC method that is marked as
+     * last only for a connector.
+     *
+     * @param invocations
+     *            the invocations to filter, in the order they were sent
+     */
+    static void removeSupersededInvocations(
+            List<MethodInvocation> invocations) {
+        Set<String> seenTags = new HashSet<String>();
+        // Iterate backwards so that the last invocation of each method is kept
+        ListIterator<MethodInvocation> iterator = invocations
+                .listIterator(invocations.size());
+        while (iterator.hasPrevious()) {
+            MethodInvocation invocation = iterator.previous();
+            if (invocation instanceof ServerRpcMethodInvocation
+                    && ((ServerRpcMethodInvocation) invocation).isLastOnly()
+                    && !seenTags.add(invocation.getLastOnlyTag())) {
+                iterator.remove();
+            }
+        }
+    }
+
     private MethodInvocation parseInvocation(JsonArray invocationJson,
             MethodInvocation previousInvocation,
             ConnectorTracker connectorTracker, long lastSyncIdSeenByClient) {
@@ -609,7 +654,7 @@ public class ServerRpcHandler implements Serializable {
                 connectorId, rpcInterface, methodName, parametersJson.length());
 
         Object[] parameters = new Object[parametersJson.length()];
-        Type[] declaredRpcMethodParameterTypes = invocation.getMethod()
+        Type[] declaredRpcMethodParameterTypes = invocation
                 .getGenericParameterTypes();
 
         for (int j = 0; j < parametersJson.length(); ++j) {
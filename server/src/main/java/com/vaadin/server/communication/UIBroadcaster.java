@@ -0,0 +1,347 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server.communication;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.vaadin.event.Registration;
+import com.vaadin.server.ClientConnector;
+import com.vaadin.server.ClientConnector.DetachListener;
+import com.vaadin.server.JsonCodec;
+import com.vaadin.shared.ApplicationConstants;
+import com.vaadin.shared.communication.ClientRpc;
+import com.vaadin.shared.communication.PushMode;
+import com.vaadin.ui.UI;
+import com.vaadin.ui.UIDetachedException;
+
+import elemental.json.JsonValue;
+import elemental.json.impl.JsonUtil;
+
+/**
+ * Broadcasts messages to a set of subscribed UIs, which may belong to
+ * different sessions. Each message is encoded to JSON only once and the same
+ * encoded value is delivered to all subscribed UIs, instead of each UI encoding
+ * its own copy of an identical message.
+ * <p>
+ * A message can be delivered in two ways:
+ * <ul>
+ * <li>To a connector subscribed using
+ * {@link #subscribe(ClientConnector, Class, String)}, the message is sent as a
+ * client RPC call through the push connection of the UI. The message is also
+ * serialized to a string only once and the push message containing it is sent
+ * without running {@link UidlWriter} for the UI and, in most cases, without
+ * locking the session of the UI. Push must be enabled for the UI.</li>
+ * <li>To a listener subscribed using
+ * {@link #subscribe(UI, BroadcastListener)}, the encoded message is passed
+ * while the session of the UI is locked. The listener can update any UI
+ * specific state as usual, and the changes are written for each UI separately.
+ * With automatic push, the changes are pushed when the session is
+ * unlocked.</li>
+ * </ul>
+ * <p>
+ * A UI or connector is automatically unsubscribed when it is detached.
+ *
+ * @param <T>
+ *            the type of the broadcast messages
+ *
+ * @since 8.0
+ * @author Vaadin Ltd
+ */
+public class UIBroadcaster<T> implements Serializable {
+
+    /**
+     * Receives the encoded messages broadcast to a UI.
+     */
+    @FunctionalInterface
+    public interface BroadcastListener extends Serializable {
+        /**
+         * Called with the session of the UI locked when a message is
+         * broadcast. The same encoded value is shared by all subscribed UIs,
+         * so it must not be modified.
+         *
+         * @param encodedMessage
+         *            the message encoded to JSON, or a JSON null if the
+         *            message was <code>null</code>
+         */
+        public void messageReceived(JsonValue encodedMessage);
+    }
+
+    private static class Subscription implements Serializable {
+        private final UI ui;
+        private final BroadcastListener listener;
+
+        private Subscription(UI ui, BroadcastListener listener) {
+            this.ui = ui;
+            this.listener = listener;
+        }
+    }
+
+    private static class ConnectorSubscription implements Serializable {
+        private final UI ui;
+        private final ClientConnector connector;
+        /*
+         * The parts of the push message before and after the serialized
+         * message, created once for the connector
+         */
+        private final String messagePrefix;
+        private final String messageSuffix;
+        /*
+         * The push connection through which messages can be sent without
+         * locking the session, or null if the connector has not yet been sent
+         * to the client through the connection
+         */
+        private transient volatile AtmospherePushConnection pushConnection;
+
+        private ConnectorSubscription(ClientConnector connector,
+                String interfaceName, String methodName) {
+            this.connector = connector;
+            ui = connector.getUI();
+            messagePrefix = "for(;;);[{\""
+                    + ApplicationConstants.SERVER_SYNC_ID
+                    + "\":-1,\"changes\":[],\"meta\":{\"async\":true},"
+                    + "\"rpc\":[[" + JsonUtil.quote(connector.getConnectorId())
+                    + "," + JsonUtil.quote(interfaceName) + ","
+                    + JsonUtil.quote(methodName) + ",[";
+            messageSuffix = "]]]}]";
+        }
+
+        private String createMessage(String serializedMessage) {
+            return messagePrefix + serializedMessage + messageSuffix;
+        }
+    }
+
+    private final Type messageType;
+
+    private final Set<Subscription> subscriptions = Collections
+            .newSetFromMap(new ConcurrentHashMap<Subscription, Boolean>());
+
+    private final Set<ConnectorSubscription> connectorSubscriptions = Collections
+            .newSetFromMap(
+                    new ConcurrentHashMap<ConnectorSubscription, Boolean>());
+
+    /**
+     * Creates a new broadcaster for messages of the given type.
+     *
+     * @param messageType
+     *            the type of the messages, used for encoding them to JSON. The
+     *            type can't contain connectors since the encoded message is
+     *            shared between UIs.
+     */
+    public UIBroadcaster(Type messageType) {
+        if (messageType == null) {
+            throw new IllegalArgumentException("Message type cannot be null");
+        }
+        this.messageType = messageType;
+    }
+
+    /**
+     * Subscribes the given UI to the messages broadcast through this
+     * broadcaster.
+     *
+     * @param ui
+     *            the UI to subscribe, not <code>null</code>
+     * @param listener
+     *            the listener that receives the encoded messages for the UI,
+     *            not <code>null</code>
+     * @return a registration for unsubscribing the UI
+     */
+    public Registration subscribe(UI ui, BroadcastListener listener) {
+        if (ui == null) {
+            throw new IllegalArgumentException("UI cannot be null");
+        }
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+
+        Subscription subscription = new Subscription(ui, listener);
+        subscriptions.add(subscription);
+
+        DetachListener detachListener = event -> subscriptions
+                .remove(subscription);
+        ui.addDetachListener(detachListener);
+
+        return () -> {
+            subscriptions.remove(subscription);
+            ui.removeDetachListener(detachListener);
+        };
+    }
+
+    /**
+     * Subscribes the given connector to the messages broadcast through this
+     * broadcaster. Each message is sent to the client side connector as a call
+     * to the given client RPC method, which must have the message as its only
+     * parameter. The message is sent without running {@link UidlWriter} for
+     * the UI, so its order relative to other changes of the UI is not
+     * guaranteed.
+     * <p>
+     * Messages that can't be sent right away, for instance because the
+     * connector has not yet been sent to the client, are sent with the next
+     * push of the UI. The connector is marked as dirty to cause such a push
+     * with {@link PushMode#AUTOMATIC automatic push}.
+     * <p>
+     * The session of the connector must be locked, and push must be enabled
+     * for the UI of the connector.
+     *
+     * @param connector
+     *            the attached connector to subscribe, not <code>null</code>
+     * @param rpcInterface
+     *            the client RPC interface of the method to call, not
+     *            <code>null</code>
+     * @param methodName
+     *            the name of the method to call, not <code>null</code>
+     * @return a registration for unsubscribing the connector
+     * @throws IllegalArgumentException
+     *             if the interface has no method with the given name and a
+     *             single parameter
+     * @throws IllegalStateException
+     *             if the connector is not attached or push is not enabled
+     */
+    public Registration subscribe(ClientConnector connector,
+            Class<? extends ClientRpc> rpcInterface, String methodName) {
+        if (connector == null) {
+            throw new IllegalArgumentException("Connector cannot be null");
+        }
+        if (rpcInterface == null) {
+            throw new IllegalArgumentException(
+                    "RPC interface cannot be null");
+        }
+        if (!hasSingleParameterMethod(rpcInterface, methodName)) {
+            throw new IllegalArgumentException(rpcInterface.getName()
+                    + " has no method " + methodName
+                    + " with a single parameter");
+        }
+        UI ui = connector.getUI();
+        if (ui == null) {
+            throw new IllegalStateException(
+                    "Cannot subscribe a detached connector");
+        }
+        assert ui.getSession().hasLock();
+        if (!ui.getPushConfiguration().getPushMode().isEnabled()) {
+            throw new IllegalStateException(
+                    "Push must be enabled for subscribing a connector");
+        }
+
+        ConnectorSubscription subscription = new ConnectorSubscription(
+                connector, rpcInterface.getName(), methodName);
+        connectorSubscriptions.add(subscription);
+
+        DetachListener detachListener = event -> connectorSubscriptions
+                .remove(subscription);
+        connector.addDetachListener(detachListener);
+
+        return () -> {
+            connectorSubscriptions.remove(subscription);
+            connector.removeDetachListener(detachListener);
+        };
+    }
+
+    private static boolean hasSingleParameterMethod(
+            Class<? extends ClientRpc> rpcInterface, String methodName) {
+        for (Method method : rpcInterface.getMethods()) {
+            if (method.getName().equals(methodName)
+                    && method.getParameterCount() == 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Encodes the given message once and delivers the encoded message to all
+     * subscribed UIs. The listeners are run asynchronously using
+     * {@link UI#access(Runnable)}, so this method can be called from any
+     * thread.
+     *
+     * @param message
+     *            the message to broadcast, or <code>null</code>
+     */
+    public void broadcast(T message) {
+        JsonValue encodedMessage = JsonCodec
+                .encode(message, null, messageType, null).getEncodedValue();
+
+        if (!connectorSubscriptions.isEmpty()) {
+            String serializedMessage = JsonUtil.stringify(encodedMessage);
+            for (ConnectorSubscription subscription : connectorSubscriptions) {
+                send(subscription,
+                        subscription.createMessage(serializedMessage));
+            }
+        }
+
+        for (Subscription subscription : subscriptions) {
+            try {
+                subscription.ui.access(() -> subscription.listener
+                        .messageReceived(encodedMessage));
+            } catch (UIDetachedException e) {
+                // Detached before the detach listener has been run
+                subscriptions.remove(subscription);
+            }
+        }
+    }
+
+    private void send(ConnectorSubscription subscription, String message) {
+        AtmospherePushConnection pushConnection = subscription.pushConnection;
+        if (pushConnection != null
+                && pushConnection.sendSharedMessage(message)) {
+            return;
+        }
+
+        // Not known to be connected, check and send with the session locked
+        subscription.pushConnection = null;
+        try {
+            subscription.ui.access(() -> sendLocked(subscription, message));
+        } catch (UIDetachedException e) {
+            // Detached before the detach listener has been run
+            connectorSubscriptions.remove(subscription);
+        }
+    }
+
+    private void sendLocked(ConnectorSubscription subscription,
+            String message) {
+        UI ui = subscription.ui;
+        if (!(ui.getPushConnection() instanceof AtmospherePushConnection)) {
+            // Push has been disabled, nothing to send the message through
+            return;
+        }
+        AtmospherePushConnection pushConnection = (AtmospherePushConnection) ui
+                .getPushConnection();
+        // Queued messages must be sent first to preserve the order
+        if (!pushConnection.hasQueuedSharedMessages()
+                && ui.getConnectorTracker()
+                        .isClientSideInitialized(subscription.connector)
+                && pushConnection.sendSharedMessage(message)) {
+            subscription.pushConnection = pushConnection;
+        } else {
+            // Sent after the connector has been pushed to the client
+            pushConnection.queueSharedMessage(message);
+            subscription.connector.markAsDirty();
+        }
+    }
+
+    /**
+     * Gets the number of UIs and connectors currently subscribed to this
+     * broadcaster.
+     *
+     * @return the number of subscriptions
+     */
+    public int getSubscriptionCount() {
+        return subscriptions.size() + connectorSubscriptions.size();
+    }
+}
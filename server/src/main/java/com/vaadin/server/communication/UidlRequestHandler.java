@@ -16,13 +16,17 @@
 
 package com.vaadin.server.communication;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.vaadin.server.LegacyCommunicationManager.InvalidUIDLSecurityKeyException;
+import com.vaadin.server.PaintException;
 import com.vaadin.server.ServletPortletHelper;
 import com.vaadin.server.SessionExpiredHandler;
 import com.vaadin.server.SynchronizedRequestHandler;
@@ -89,6 +93,17 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         try {
             rpcHandler.handleRpc(uI, request.getReader(), request);
 
+            String replayedResponse = (String) request.getAttribute(
+                    ServerRpcHandler.REPLAYED_RESPONSE_ATTRIBUTE);
+            if (replayedResponse != null) {
+                return UIInitHandler.commitJsonResponse(request, response,
+                        replayedResponse);
+            }
+
+            if (session.getConfiguration().isUidlStreamingEnabled()) {
+                uI.setLastUidlResponse(null);
+                return streamUidl(request, response, uI);
+            }
             writeUidl(request, response, uI, stringWriter);
         } catch (JsonException e) {
             getLogger().log(Level.SEVERE, "Error writing JSON to response", e);
@@ -106,8 +121,15 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
             stringWriter.close();
         }
 
-        return UIInitHandler.commitJsonResponse(request, response,
-                stringWriter.toString());
+        String json = stringWriter.toString();
+        if (json.length() <= session.getConfiguration()
+                .getMaxReplayableResponseSize()) {
+            uI.setLastUidlResponse(json);
+        } else {
+            uI.setLastUidlResponse(null);
+        }
+
+        return UIInitHandler.commitJsonResponse(request, response, json);
     }
 
     private void writeRefresh(VaadinRequest request, VaadinResponse response)
@@ -117,6 +139,30 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         UIInitHandler.commitJsonResponse(request, response, json);
     }
 
+    /**
+     * Writes the UIDL response directly to the response output stream without
+     * collecting it into a string first.
+     */
+    private boolean streamUidl(VaadinRequest request, VaadinResponse response,
+            UI ui) throws IOException {
+        response.setContentType(JsonConstants.JSON_CONTENT_TYPE);
+        // Ensure that the browser does not cache UIDL responses.
+        response.setHeader("Cache-Control", "no-cache");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+                response.getOutputStream(), StandardCharsets.UTF_8));
+        try {
+            writeUidl(request, response, ui, writer);
+        } catch (JsonException e) {
+            // Part of the response might already have been sent so it can't
+            // be replaced with a refresh message
+            throw new PaintException("Error writing JSON to response", e);
+        }
+        // NOTE GateIn requires the buffers to be flushed to work
+        writer.flush();
+        return true;
+    }
+
     private void writeUidl(VaadinRequest request, VaadinResponse response,
             UI ui, Writer writer) throws IOException {
         openJsonMessage(writer, response);
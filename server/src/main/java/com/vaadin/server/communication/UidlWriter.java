@@ -26,6 +26,7 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -56,6 +57,46 @@ import elemental.json.impl.JsonUtil;
  */
 public class UidlWriter implements Serializable {
 
+    /**
+     * Information about a connector type that is needed when the type is sent
+     * to the client for the first time. The information only depends on the
+     * class so it is shared by all sessions.
+     */
+    private static class ConnectorTypeInfo implements Serializable {
+        /* Number of superclasses between the type and Object */
+        private final int hierarchyDepth;
+        /* Superclass of the type, or null if it's not a connector */
+        private final Class<? extends ClientConnector> connectorSuperclass;
+        private final String[] scriptDependencies;
+        private final String[] styleDependencies;
+
+        @SuppressWarnings("unchecked")
+        private ConnectorTypeInfo(Class<? extends ClientConnector> type) {
+            int depth = 0;
+            for (Class<?> c = type; c != Object.class; c = c
+                    .getSuperclass()) {
+                ++depth;
+            }
+            hierarchyDepth = depth;
+
+            Class<?> superclass = type.getSuperclass();
+            if (ClientConnector.class.isAssignableFrom(superclass)) {
+                connectorSuperclass = (Class<? extends ClientConnector>) superclass;
+            } else {
+                connectorSuperclass = null;
+            }
+
+            JavaScript jsAnnotation = type.getAnnotation(JavaScript.class);
+            scriptDependencies = jsAnnotation != null ? jsAnnotation.value()
+                    : new String[0];
+            StyleSheet styleAnnotation = type.getAnnotation(StyleSheet.class);
+            styleDependencies = styleAnnotation != null
+                    ? styleAnnotation.value() : new String[0];
+        }
+    }
+
+    private static final ConcurrentHashMap<Class<? extends ClientConnector>, ConnectorTypeInfo> connectorTypeInfoCache = new ConcurrentHashMap<Class<? extends ClientConnector>, ConnectorTypeInfo>();
+
     /**
      * Writes a JSON object containing all pending changes to the given UI.
      *
@@ -239,8 +280,9 @@ public class UidlWriter implements Serializable {
             if (typeMappingsOpen) {
                 // send the whole type inheritance map if any new mappings
                 for (Class<? extends ClientConnector> class1 : usedClientConnectors) {
-                    if (!ClientConnector.class
-                            .isAssignableFrom(class1.getSuperclass())) {
+                    Class<? extends ClientConnector> superclass = getConnectorTypeInfo(
+                            class1).connectorSuperclass;
+                    if (superclass == null) {
                         continue;
                     }
                     if (!typeInheritanceMapOpen) {
@@ -252,9 +294,7 @@ public class UidlWriter implements Serializable {
                     writer.write("\"");
                     writer.write(manager.getTagForType(class1));
                     writer.write("\" : ");
-                    writer.write(manager.getTagForType(
-                            (Class<? extends ClientConnector>) class1
-                                    .getSuperclass()));
+                    writer.write(manager.getTagForType(superclass));
                 }
                 if (typeInheritanceMapOpen) {
                     writer.write(" }");
@@ -268,42 +308,21 @@ public class UidlWriter implements Serializable {
              *
              * @JavaScript defined by super class is already loaded.
              */
-            Collections.sort(newConnectorTypes, new Comparator<Class<?>>() {
-                @Override
-                public int compare(Class<?> o1, Class<?> o2) {
-                    // TODO optimize using Class.isAssignableFrom?
-                    return hierarchyDepth(o1) - hierarchyDepth(o2);
-                }
-
-                private int hierarchyDepth(Class<?> type) {
-                    if (type == Object.class) {
-                        return 0;
-                    } else {
-                        return hierarchyDepth(type.getSuperclass()) + 1;
-                    }
-                }
-            });
+            Collections.sort(newConnectorTypes, Comparator.comparingInt(
+                    type -> getConnectorTypeInfo(type).hierarchyDepth));
 
             List<String> scriptDependencies = new ArrayList<String>();
             List<String> styleDependencies = new ArrayList<String>();
 
             for (Class<? extends ClientConnector> class1 : newConnectorTypes) {
-                JavaScript jsAnnotation = class1
-                        .getAnnotation(JavaScript.class);
-                if (jsAnnotation != null) {
-                    for (String uri : jsAnnotation.value()) {
-                        scriptDependencies
-                                .add(manager.registerDependency(uri, class1));
-                    }
+                ConnectorTypeInfo typeInfo = getConnectorTypeInfo(class1);
+                for (String uri : typeInfo.scriptDependencies) {
+                    scriptDependencies
+                            .add(manager.registerDependency(uri, class1));
                 }
-
-                StyleSheet styleAnnotation = class1
-                        .getAnnotation(StyleSheet.class);
-                if (styleAnnotation != null) {
-                    for (String uri : styleAnnotation.value()) {
-                        styleDependencies
-                                .add(manager.registerDependency(uri, class1));
-                    }
+                for (String uri : typeInfo.styleDependencies) {
+                    styleDependencies
+                            .add(manager.registerDependency(uri, class1));
                 }
             }
 
@@ -335,6 +354,16 @@ public class UidlWriter implements Serializable {
         }
     }
 
+    /**
+     * Gets the cached type information for the given connector class,
+     * computing it if this is the first time the type is used.
+     */
+    private static ConnectorTypeInfo getConnectorTypeInfo(
+            Class<? extends ClientConnector> type) {
+        return connectorTypeInfoCache.computeIfAbsent(type,
+                ConnectorTypeInfo::new);
+    }
+
     private JsonArray toJsonArray(List<String> list) {
         JsonArray result = Json.createArray();
         for (int i = 0; i < list.size(); i++) {
@@ -15,10 +15,19 @@
  */
 package com.vaadin.server.data;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -29,9 +38,35 @@ import java.util.stream.Stream;
  */
 public class BackEndDataSource<T> implements DataSource<T> {
 
+    /**
+     * Maximum amount of filter combinations to cache the size for.
+     */
+    private static final int MAX_CACHED_SIZES = 50;
+
+    /**
+     * Size of the back end data for one set of filters, and the time it was
+     * requested.
+     */
+    private static class CachedSize implements Serializable {
+        private final int size;
+        private final long timestamp;
+
+        private CachedSize(int size, long timestamp) {
+            this.size = size;
+            this.timestamp = timestamp;
+        }
+    }
+
     private Function<Query, Stream<T>> request;
     private Function<Query, Integer> sizeCallback;
 
+    private int readAheadBlockSize = 0;
+    private int readAheadCacheSize = 0;
+    private transient Map<List<Object>, List<T>> blockCache;
+
+    private long sizeValidMilliSeconds = 0;
+    private transient Map<Set<Object>, CachedSize> sizeCache;
+
     /**
      * Constructs a new DataSource to request data from an arbitrary back end
      * request function.
@@ -51,12 +86,242 @@ public class BackEndDataSource<T> implements DataSource<T> {
 
     @Override
     public Stream<T> apply(Query t) {
-        return request.apply(t);
+        if (readAheadBlockSize <= 0 || t.getLimit() == Integer.MAX_VALUE) {
+            return request.apply(t);
+        }
+
+        int offset = t.getOffset();
+        long end = (long) offset + t.getLimit();
+        List<T> rows = new ArrayList<>();
+        for (int block = offset / readAheadBlockSize; (long) block
+                * readAheadBlockSize < end; ++block) {
+            int blockStart = block * readAheadBlockSize;
+            List<T> blockData = getBlock(t, block);
+
+            int from = Math.max(offset - blockStart, 0);
+            int to = (int) Math.min(end - blockStart, blockData.size());
+            if (from < to) {
+                rows.addAll(blockData.subList(from, to));
+            }
+            if (blockData.size() < readAheadBlockSize) {
+                // Reached the end of the back end data
+                break;
+            }
+        }
+        return rows.stream();
+    }
+
+    /**
+     * Gets a block of data for the sorting and filtering of the given query.
+     * The block is fetched from the back end if it is not already cached.
+     *
+     * @param query
+     *            query with sorting and filtering
+     * @param block
+     *            index of the block
+     * @return data in the block
+     */
+    private List<T> getBlock(Query query, int block) {
+        // Sort orders and filters define the content of the block. Copied
+        // since the caller may modify them after the query has been made.
+        List<SortOrder<String>> sortOrders = new ArrayList<>(
+                query.getSortOrders());
+        Set<Object> filters = new HashSet<>(query.getFilters());
+        List<Object> key = Arrays.asList(sortOrders, filters, block);
+        synchronized (this) {
+            List<T> blockData = getBlockCache().get(key);
+            if (blockData != null) {
+                return blockData;
+            }
+        }
+
+        List<T> blockData = request
+                .apply(new Query(block * readAheadBlockSize,
+                        readAheadBlockSize, sortOrders, filters))
+                .collect(Collectors.toList());
+        synchronized (this) {
+            getBlockCache().put(key, blockData);
+        }
+        return blockData;
+    }
+
+    private Map<List<Object>, List<T>> getBlockCache() {
+        if (blockCache == null) {
+            blockCache = new LinkedHashMap<List<Object>, List<T>>(16, 0.75f,
+                    true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Entry<List<Object>, List<T>> eldest) {
+                    return size() > readAheadCacheSize;
+                }
+            };
+        }
+        return blockCache;
+    }
+
+    /**
+     * Sets the read-ahead policy of this data source. When enabled, data is
+     * requested from the back end in aligned blocks of the given size and the
+     * most recently used blocks are cached for each sorting and filtering.
+     * Subsequent requests for rows within cached blocks are served without
+     * calling the back end.
+     * <p>
+     * The block size should be a few times larger than the amount of rows
+     * requested at once, e.g. the client-side cache size of a Grid. Read-ahead
+     * is disabled by default.
+     *
+     * @param blockSize
+     *            amount of rows to fetch at once; {@code 0} to disable
+     *            read-ahead
+     * @param cachedBlocks
+     *            maximum amount of blocks to keep in cache
+     */
+    public void setReadAhead(int blockSize, int cachedBlocks) {
+        if (blockSize < 0) {
+            throw new IllegalArgumentException(
+                    "Block size can't be negative");
+        }
+        if (cachedBlocks < 1) {
+            throw new IllegalArgumentException(
+                    "At least one block needs to be cached");
+        }
+        readAheadBlockSize = blockSize;
+        readAheadCacheSize = cachedBlocks;
+        clearCache();
+    }
+
+    /**
+     * Gets the size of the blocks fetched from the back end.
+     *
+     * @return amount of rows fetched at once; {@code 0} if read-ahead is
+     *         disabled
+     */
+    public int getReadAheadBlockSize() {
+        return readAheadBlockSize;
     }
 
+    /**
+     * Clears all data and sizes cached by this data source. This should be
+     * called when the data in the back end has changed.
+     */
+    public synchronized void clearCache() {
+        blockCache = null;
+        sizeCache = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If size caching is enabled, the size is requested from the back end only
+     * if there is no valid cached size for the filters of the query.
+     *
+     * @see #setSizeValidMilliSeconds(long)
+     */
     @Override
     public int size(Query t) {
-        return sizeCallback.apply(t);
+        if (sizeValidMilliSeconds <= 0) {
+            return sizeCallback.apply(t);
+        }
+
+        synchronized (this) {
+            CachedSize cached = getSizeCache().get(t.getFilters());
+            if (cached != null && isValid(cached)) {
+                return cached.size;
+            }
+        }
+
+        int size = sizeCallback.apply(t);
+        synchronized (this) {
+            // Copied since the caller may modify the filters later
+            getSizeCache().put(new HashSet<>(t.getFilters()),
+                    new CachedSize(size, System.currentTimeMillis()));
+        }
+        return size;
+    }
+
+    /**
+     * Gets the last known size of the back end data for the filters of the
+     * given query. The returned size might have expired.
+     *
+     * @param query
+     *            query with filtering
+     * @return the last known size; empty if size caching is disabled or the
+     *         size has not been requested for the filters
+     * @see #isCachedSizeValid(Query)
+     */
+    public synchronized OptionalInt getCachedSize(Query query) {
+        CachedSize cached = getSizeCache().get(query.getFilters());
+        if (sizeValidMilliSeconds <= 0 || cached == null) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(cached.size);
+    }
+
+    /**
+     * Gets whether there is a cached size for the filters of the given query
+     * that has not yet expired.
+     *
+     * @param query
+     *            query with filtering
+     * @return {@code true} if the cached size is valid; {@code false} if not
+     */
+    public synchronized boolean isCachedSizeValid(Query query) {
+        CachedSize cached = getSizeCache().get(query.getFilters());
+        return sizeValidMilliSeconds > 0 && cached != null && isValid(cached);
+    }
+
+    private boolean isValid(CachedSize cached) {
+        return System.currentTimeMillis() < cached.timestamp
+                + sizeValidMilliSeconds;
+    }
+
+    private Map<Set<Object>, CachedSize> getSizeCache() {
+        if (sizeCache == null) {
+            sizeCache = new LinkedHashMap<Set<Object>, CachedSize>(16, 0.75f,
+                    true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Entry<Set<Object>, CachedSize> eldest) {
+                    return size() > MAX_CACHED_SIZES;
+                }
+            };
+        }
+        return sizeCache;
+    }
+
+    /**
+     * Sets the time a size requested from the back end is considered valid.
+     * While valid, the cached size is used instead of calling the size
+     * callback again. Sizes are cached separately for each set of filters.
+     * Size caching is disabled by default.
+     * <p>
+     * When the {@link DataCommunicator} using this data source has a
+     * {@link DataCommunicator#setBackEndExecutor(java.util.concurrent.Executor)
+     * back end executor}, an expired size is used as an estimate while the
+     * actual size is requested in the background.
+     *
+     * @param sizeValidMilliSeconds
+     *            time in milliseconds a size is valid; {@code 0} to disable
+     *            size caching
+     */
+    public synchronized void setSizeValidMilliSeconds(
+            long sizeValidMilliSeconds) {
+        if (sizeValidMilliSeconds < 0) {
+            throw new IllegalArgumentException(
+                    "Size validity time can't be negative");
+        }
+        this.sizeValidMilliSeconds = sizeValidMilliSeconds;
+        sizeCache = null;
+    }
+
+    /**
+     * Gets the time a size requested from the back end is considered valid.
+     *
+     * @return time in milliseconds a size is valid; {@code 0} if size caching
+     *         is disabled
+     */
+    public long getSizeValidMilliSeconds() {
+        return sizeValidMilliSeconds;
     }
 
     /**
@@ -0,0 +1,377 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server.data;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Objects;
+
+import com.vaadin.server.SerializableFunction;
+
+/**
+ * {@link DataKeyMapper} with a low memory footprint. Keys are stored as
+ * {@code int}s in open addressing hash tables, so no map entries are retained
+ * per data object. The string form of a key is created the first time it is
+ * requested and then reused.
+ * <p>
+ * The hash tables are not serialized as such, since the hash codes of the data
+ * objects might be different after deserialization. The mappings are instead
+ * written as key and data object pairs and the tables are rebuilt when the
+ * mapper is deserialized.
+ * <p>
+ * Data objects can be identified either by {@link Object#equals(Object)}, by
+ * an identifier provided for each data object or by reference identity.
+ * <p>
+ * Keys are {@code int} values, so dropped keys are not reused until all
+ * positive {@code int} values have been used as keys. After that, key
+ * generation starts over from the smallest values, skipping keys that are
+ * still in use.
+ *
+ * @since
+ * @param <T>
+ *            data type
+ */
+public class CompactKeyMapper<T> implements DataKeyMapper<T> {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final String NULL_KEY = "null";
+
+    private final SerializableFunction<T, ?> identifierGetter;
+    private final boolean identity;
+
+    private int lastKey = 0;
+    private transient int size = 0;
+
+    /* Data object to key table */
+    private transient Object[] objects;
+    private transient int[] objectHashes;
+    private transient int[] objectKeys;
+    private transient String[] objectKeyStrings;
+
+    /* Key to data object table; 0 marks an empty slot */
+    private transient int[] keys;
+    private transient Object[] keyObjects;
+
+    /**
+     * Constructs a new key mapper identifying data objects by
+     * {@link Object#equals(Object)}.
+     */
+    public CompactKeyMapper() {
+        this(null, false);
+    }
+
+    /**
+     * Constructs a new key mapper identifying data objects by the given
+     * identifier. Identifiers are compared using
+     * {@link Object#equals(Object)}.
+     *
+     * @param identifierGetter
+     *            function to get the identifier of a data object
+     */
+    public CompactKeyMapper(SerializableFunction<T, ?> identifierGetter) {
+        this(Objects.requireNonNull(identifierGetter,
+                "Identifier getter can't be null"), false);
+    }
+
+    private CompactKeyMapper(SerializableFunction<T, ?> identifierGetter,
+            boolean identity) {
+        this.identifierGetter = identifierGetter;
+        this.identity = identity;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates a new key mapper identifying data objects by reference identity.
+     *
+     * @param <T>
+     *            data type
+     * @return key mapper using reference identity
+     */
+    public static <T> CompactKeyMapper<T> identity() {
+        return new CompactKeyMapper<>(null, true);
+    }
+
+    @Override
+    public String key(T dataObject) {
+        if (dataObject == null) {
+            return NULL_KEY;
+        }
+
+        int hash = hash(dataObject);
+        int slot = findObjectSlot(dataObject, hash);
+        if (objects[slot] == null) {
+            slot = insert(slot, dataObject, hash, nextKey());
+        }
+
+        String keyString = objectKeyStrings[slot];
+        if (keyString == null) {
+            keyString = encode(objectKeys[slot]);
+            objectKeyStrings[slot] = keyString;
+        }
+        return keyString;
+    }
+
+    /**
+     * Gets a key that is not in use. Keys are not reused until all positive
+     * {@code int} values have been used.
+     */
+    private int nextKey() {
+        do {
+            lastKey = lastKey == Integer.MAX_VALUE ? 1 : lastKey + 1;
+        } while (keys[findKeySlot(lastKey)] == lastKey);
+        return lastKey;
+    }
+
+    /**
+     * Adds a mapping to the empty object table slot found for the data object.
+     *
+     * @return the slot of the data object after a possible resize
+     */
+    private int insert(int slot, Object dataObject, int hash, int key) {
+        objects[slot] = dataObject;
+        objectHashes[slot] = hash;
+        objectKeys[slot] = key;
+        int keySlot = findKeySlot(key);
+        keys[keySlot] = key;
+        keyObjects[keySlot] = dataObject;
+
+        // Keep load factor below 3/4
+        if (++size * 4 > objects.length * 3) {
+            resize(objects.length * 2);
+            slot = findObjectSlot(dataObject, hash);
+        }
+        return slot;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(String key) {
+        int intKey = decode(key);
+        if (intKey <= 0) {
+            return null;
+        }
+        int slot = findKeySlot(intKey);
+        return keys[slot] == intKey ? (T) keyObjects[slot] : null;
+    }
+
+    @Override
+    public void remove(T dataObject) {
+        if (dataObject == null) {
+            return;
+        }
+
+        int slot = findObjectSlot(dataObject, hash(dataObject));
+        if (objects[slot] == null) {
+            return;
+        }
+
+        int key = objectKeys[slot];
+        removeObjectSlot(slot);
+        removeKeySlot(findKeySlot(key));
+        --size;
+    }
+
+    @Override
+    public void removeAll() {
+        allocate(INITIAL_CAPACITY);
+        size = 0;
+    }
+
+    private void allocate(int capacity) {
+        objects = new Object[capacity];
+        objectHashes = new int[capacity];
+        objectKeys = new int[capacity];
+        objectKeyStrings = new String[capacity];
+        keys = new int[capacity];
+        keyObjects = new Object[capacity];
+    }
+
+    private void resize(int capacity) {
+        Object[] oldObjects = objects;
+        int[] oldHashes = objectHashes;
+        int[] oldKeys = objectKeys;
+        String[] oldKeyStrings = objectKeyStrings;
+        allocate(capacity);
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldObjects.length; ++i) {
+            if (oldObjects[i] == null) {
+                continue;
+            }
+            int slot = mix(oldHashes[i]) & mask;
+            while (objects[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            objects[slot] = oldObjects[i];
+            objectHashes[slot] = oldHashes[i];
+            objectKeys[slot] = oldKeys[i];
+            objectKeyStrings[slot] = oldKeyStrings[i];
+
+            int keySlot = findKeySlot(oldKeys[i]);
+            keys[keySlot] = oldKeys[i];
+            keyObjects[keySlot] = oldObjects[i];
+        }
+    }
+
+    /**
+     * Finds the slot of the given data object, or the empty slot where it
+     * should be inserted.
+     */
+    @SuppressWarnings("unchecked")
+    private int findObjectSlot(Object dataObject, int hash) {
+        int mask = objects.length - 1;
+        int slot = mix(hash) & mask;
+        Object id = identity ? dataObject : getIdentifier((T) dataObject);
+        while (objects[slot] != null) {
+            if (objectHashes[slot] == hash) {
+                if (identity ? objects[slot] == dataObject
+                        : Objects.equals(getIdentifier((T) objects[slot]),
+                                id)) {
+                    break;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Finds the slot of the given key, or the empty slot where it should be
+     * inserted.
+     */
+    private int findKeySlot(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Empties a slot in the data object table. Following entries in the same
+     * probe sequence are shifted back so no tombstones are needed.
+     */
+    private void removeObjectSlot(int slot) {
+        int mask = objects.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (objects[next] != null) {
+            int ideal = mix(objectHashes[next]) & mask;
+            if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                objects[hole] = objects[next];
+                objectHashes[hole] = objectHashes[next];
+                objectKeys[hole] = objectKeys[next];
+                objectKeyStrings[hole] = objectKeyStrings[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        objects[hole] = null;
+        objectHashes[hole] = 0;
+        objectKeys[hole] = 0;
+        objectKeyStrings[hole] = null;
+    }
+
+    /**
+     * Empties a slot in the key table. Following entries in the same probe
+     * sequence are shifted back so no tombstones are needed.
+     */
+    private void removeKeySlot(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != 0) {
+            int ideal = mix(keys[next]) & mask;
+            if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                keyObjects[hole] = keyObjects[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = 0;
+        keyObjects[hole] = null;
+    }
+
+    private Object getIdentifier(T dataObject) {
+        return identifierGetter != null ? identifierGetter.apply(dataObject)
+                : dataObject;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int hash(Object dataObject) {
+        if (identity) {
+            return System.identityHashCode(dataObject);
+        }
+        return Objects.hashCode(getIdentifier((T) dataObject));
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (int i = 0; i < objects.length; ++i) {
+            if (objects[i] != null) {
+                out.writeInt(objectKeys[i]);
+                out.writeObject(objects[i]);
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int count = in.readInt();
+        int capacity = INITIAL_CAPACITY;
+        while (count * 4 > capacity * 3) {
+            capacity *= 2;
+        }
+        allocate(capacity);
+
+        // Hash codes are computed again since they might have changed
+        for (int i = 0; i < count; ++i) {
+            int key = in.readInt();
+            Object dataObject = in.readObject();
+            int hash = hash(dataObject);
+            insert(findObjectSlot(dataObject, hash), dataObject, hash, key);
+        }
+    }
+
+    /*
+     * Hexadecimal keys are shorter than decimal ones and can never collide
+     * with the key used for null.
+     */
+    private static String encode(int key) {
+        return Integer.toHexString(key);
+    }
+
+    private static int decode(String key) {
+        if (key == null || key.isEmpty() || key.length() > 8) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(key, 16);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
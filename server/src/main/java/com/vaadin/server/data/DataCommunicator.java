@@ -17,22 +17,31 @@ package com.vaadin.server.data;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.vaadin.server.AbstractExtension;
+import com.vaadin.server.JsonCodec;
 import com.vaadin.server.KeyMapper;
 import com.vaadin.shared.data.DataCommunicatorClientRpc;
 import com.vaadin.shared.data.DataCommunicatorConstants;
 import com.vaadin.shared.data.DataRequestRpc;
 import com.vaadin.shared.ui.grid.Range;
+import com.vaadin.ui.UI;
 
 import elemental.json.Json;
 import elemental.json.JsonArray;
@@ -48,6 +57,19 @@ import elemental.json.JsonObject;
  */
 public class DataCommunicator<T> extends AbstractExtension {
 
+    /**
+     * Maximum amount of tracked rows to compute incremental updates for.
+     * Larger ranges are reset instead.
+     */
+    private static final int MAX_INCREMENTAL_ROWS = 1000;
+
+    /**
+     * Maximum size of the table used for finding the changed rows, excluding
+     * unchanged rows at the start and the end of the tracked range. Larger
+     * changes are reset instead.
+     */
+    private static final int MAX_DIFF_CELLS = 64 * 1024;
+
     /**
      * Simple implementation of collection data provider communication. All data
      * is sent by server automatically and no data is requested by client.
@@ -63,9 +85,12 @@ public class DataCommunicator<T> extends AbstractExtension {
 
         @Override
         public void dropRows(JsonArray keys) {
+            Set<String> droppedKeys = new HashSet<>();
             for (int i = 0; i < keys.length(); ++i) {
                 handler.dropActiveData(keys.getString(i));
+                droppedKeys.add(keys.getString(i));
             }
+            trimSentRows(droppedKeys);
         }
     }
 
@@ -171,6 +196,19 @@ public class DataCommunicator<T> extends AbstractExtension {
         }
     }
 
+    /**
+     * A generated json object and the data object it was generated for.
+     */
+    private static class GeneratedData<T> implements Serializable {
+        private final T data;
+        private final JsonObject json;
+
+        private GeneratedData(T data, JsonObject json) {
+            this.data = data;
+            this.json = json;
+        }
+    }
+
     private Collection<TypedDataGenerator<T>> generators = new LinkedHashSet<TypedDataGenerator<T>>();
     private ActiveDataHandler handler = new ActiveDataHandler();
 
@@ -182,9 +220,24 @@ public class DataCommunicator<T> extends AbstractExtension {
     private Range pushRows = Range.withLength(0, 40);
 
     private Comparator<T> inMemorySorting;
+    private transient List<T> inMemoryData;
+    private int parallelSortThreshold = -1;
+
+    private transient Executor backEndExecutor;
+    private transient CompletableFuture<List<T>> pendingFetch;
+
     private List<SortOrder<String>> backEndSorting = new ArrayList<>();
     private DataCommunicatorClientRpc rpc;
 
+    private boolean incrementalUpdates = false;
+    private int clientSize = 0;
+    private int sentStart = 0;
+    private final List<String> sentKeys = new ArrayList<>();
+    private final List<JsonObject> sentRows = new ArrayList<>();
+
+    private boolean dataObjectCaching = false;
+    private transient Map<String, GeneratedData<T>> dataObjectCache;
+
     public DataCommunicator() {
         addDataGenerator(handler);
         rpc = getRpcProxy(DataCommunicatorClientRpc.class);
@@ -208,36 +261,43 @@ public class DataCommunicator<T> extends AbstractExtension {
         Set<Object> filters = Collections.emptySet();
 
         if (initial || reset) {
-            int dataSourceSize = getDataSource().size(new Query(filters));
-            rpc.reset(dataSourceSize);
+            int dataSourceSize = getDataSourceSize(new Query(filters));
+            if (initial || !incrementalUpdates || sentKeys.isEmpty()
+                    || sentKeys.size() > MAX_INCREMENTAL_ROWS
+                    || !pushIncrementalUpdate(dataSourceSize, filters)) {
+                rpc.reset(dataSourceSize);
+                clientSize = dataSourceSize;
+                sentKeys.clear();
+                sentRows.clear();
+            }
         }
 
         if (!pushRows.isEmpty()) {
             int offset = pushRows.getStart();
             int limit = pushRows.length();
 
-            Stream<T> rowsToPush;
-
-            if (getDataSource().isInMemory()) {
-                // We can safely request all the data when in memory
-                // FIXME: filter.
-                rowsToPush = getDataSource().apply(new Query());
-                if (inMemorySorting != null) {
-                    rowsToPush = rowsToPush.sorted(inMemorySorting);
-                }
-                rowsToPush = rowsToPush.skip(offset).limit(limit);
+            if (!getDataSource().isInMemory() && backEndExecutor != null
+                    && getUI() != null) {
+                // The sorting may change while the query is being run
+                fetchAsync(offset, new Query(offset, limit,
+                        new ArrayList<>(backEndSorting), filters));
             } else {
-                Query query = new Query(offset, limit, backEndSorting, filters);
-                rowsToPush = getDataSource().apply(query);
+                pushData(offset, fetchRows(offset, limit, filters));
             }
-            pushData(offset, rowsToPush);
         }
 
         if (!updatedData.isEmpty()) {
             JsonArray dataArray = Json.createArray();
             int i = 0;
             for (T data : updatedData) {
-                dataArray.set(i++, getDataObject(data));
+                evictDataObject(getKeyMapper().key(data));
+                JsonObject dataObject = getDataObject(data);
+                dataArray.set(i++, dataObject);
+
+                int index = sentKeys.indexOf(getKeyMapper().key(data));
+                if (index >= 0) {
+                    sentRows.set(index, dataObject);
+                }
             }
             rpc.updateData(dataArray);
         }
@@ -247,6 +307,511 @@ public class DataCommunicator<T> extends AbstractExtension {
         updatedData.clear();
     }
 
+    /**
+     * Fetches a range of data from the data source.
+     *
+     * @param offset
+     *            first index to fetch
+     * @param limit
+     *            maximum amount of data to fetch
+     * @param filters
+     *            filters to pass to a back end data source
+     * @return stream of fetched data
+     */
+    private Stream<T> fetchRows(int offset, int limit, Set<Object> filters) {
+        if (getDataSource().isInMemory()) {
+            List<T> data = getInMemoryData();
+            int end = Math.min(offset + limit, data.size());
+            return data.subList(Math.min(offset, end), end).stream();
+        }
+        return getDataSource()
+                .apply(new Query(offset, limit, backEndSorting, filters));
+    }
+
+    /**
+     * Sends the changes between the rows previously sent to the client-side
+     * and the current data in the same range as row removals, insertions and
+     * updates instead of resetting all data on the client-side.
+     * <p>
+     * Nothing is sent if rows have been moved, since the client-side drops a
+     * removed row even if it is inserted again, or if the changes are too
+     * large to compare.
+     *
+     * @param newSize
+     *            current size of the data source
+     * @param filters
+     *            filters to pass to a back end data source
+     * @return {@code true} if the changes were sent; {@code false} if the data
+     *         should be reset instead
+     */
+    private boolean pushIncrementalUpdate(int newSize, Set<Object> filters) {
+        int oldLength = sentKeys.size();
+        List<T> newData = fetchRows(sentStart,
+                Math.max(0, Math.min(oldLength, newSize - sentStart)),
+                filters).collect(Collectors.toList());
+        int newLength = newData.size();
+        List<String> newKeys = new ArrayList<>(newLength);
+        for (T item : newData) {
+            newKeys.add(getKeyMapper().key(item));
+        }
+
+        // Unchanged rows at the start and the end need no comparison
+        int prefix = 0;
+        while (prefix < oldLength && prefix < newLength
+                && sentKeys.get(prefix).equals(newKeys.get(prefix))) {
+            ++prefix;
+        }
+        int suffix = 0;
+        while (suffix < oldLength - prefix && suffix < newLength - prefix
+                && sentKeys.get(oldLength - suffix - 1)
+                        .equals(newKeys.get(newLength - suffix - 1))) {
+            ++suffix;
+        }
+        int oldEnd = oldLength - suffix;
+        int newEnd = newLength - suffix;
+
+        int[][] common = null;
+        if ((long) (oldEnd - prefix) * (newEnd - prefix) <= MAX_DIFF_CELLS) {
+            common = getCommonSubsequenceLengths(prefix, oldEnd, newKeys,
+                    newEnd);
+        }
+        if (common == null || hasMovedRows(newKeys,
+                prefix + suffix + common[0][0])) {
+            // Keys of rows that were never sent are not needed for a reset
+            for (T item : newData) {
+                if (!handler.activeData
+                        .contains(getKeyMapper().key(item))) {
+                    getKeyMapper().remove(item);
+                }
+            }
+            return false;
+        }
+
+        List<JsonObject> newRows = new ArrayList<>(newLength);
+        for (T item : newData) {
+            newRows.add(getDataObject(item));
+        }
+
+        Set<String> removedKeys = new HashSet<>();
+        JsonArray updated = Json.createArray();
+        int firstInsert = -1;
+        for (int k = 0; k < prefix; ++k) {
+            if (!JsonCodec.jsonEquals(sentRows.get(k), newRows.get(k))) {
+                updated.set(updated.length(), newRows.get(k));
+            }
+        }
+        int i = prefix;
+        int j = prefix;
+        while (i < oldEnd || j < newEnd) {
+            if (i < oldEnd && j < newEnd
+                    && sentKeys.get(i).equals(newKeys.get(j))) {
+                // Rows after the first insertion are sent in full anyway
+                if (firstInsert < 0 && !JsonCodec.jsonEquals(sentRows.get(i),
+                        newRows.get(j))) {
+                    updated.set(updated.length(), newRows.get(j));
+                }
+                ++i;
+                ++j;
+                continue;
+            }
+
+            int index = sentStart + j;
+            int removed = 0;
+            while (i < oldEnd && (j == newEnd
+                    || !sentKeys.get(i).equals(newKeys.get(j))
+                            && at(common, prefix, i + 1, j) >= at(common,
+                                    prefix, i, j + 1))) {
+                removedKeys.add(sentKeys.get(i++));
+                ++removed;
+            }
+            if (removed > 0) {
+                rpc.removeRows(index, removed);
+            }
+
+            int inserted = 0;
+            while (j < newEnd && (i == oldEnd
+                    || !sentKeys.get(i).equals(newKeys.get(j))
+                            && at(common, prefix, i, j + 1) > at(common,
+                                    prefix, i + 1, j))) {
+                ++j;
+                ++inserted;
+            }
+            if (inserted > 0) {
+                rpc.insertRows(index, inserted);
+                if (firstInsert < 0) {
+                    firstInsert = index;
+                }
+            }
+        }
+        if (firstInsert < 0) {
+            for (int k = 0; k < suffix; ++k) {
+                if (!JsonCodec.jsonEquals(sentRows.get(oldEnd + k),
+                        newRows.get(newEnd + k))) {
+                    updated.set(updated.length(), newRows.get(newEnd + k));
+                }
+            }
+        }
+
+        // Rows outside of the sent range only affect the size
+        int sizeAfterChanges = clientSize - oldLength + newLength;
+        if (newSize > sizeAfterChanges) {
+            rpc.insertRows(sizeAfterChanges, newSize - sizeAfterChanges);
+        } else if (newSize < sizeAfterChanges) {
+            rpc.removeRows(newSize, sizeAfterChanges - newSize);
+        }
+        clientSize = newSize;
+
+        if (firstInsert >= 0) {
+            JsonArray dataArray = Json.createArray();
+            for (int k = firstInsert - sentStart; k < newLength; ++k) {
+                dataArray.set(dataArray.length(), newRows.get(k));
+            }
+            rpc.setData(firstInsert, dataArray);
+        }
+        if (updated.length() > 0) {
+            rpc.updateData(updated);
+        }
+
+        sentKeys.clear();
+        sentKeys.addAll(newKeys);
+        sentRows.clear();
+        sentRows.addAll(newRows);
+
+        removedKeys.forEach(handler::dropActiveData);
+        handler.addActiveData(newData.stream());
+        handler.cleanUp(newData.stream());
+        return true;
+    }
+
+    /**
+     * Computes the lengths of the longest common subsequences of the suffixes
+     * of the sent keys and the new keys between the given indices. The value
+     * for sent key {@code i} and new key {@code j} is stored at
+     * {@code [i - start][j - start]}.
+     */
+    private int[][] getCommonSubsequenceLengths(int start, int oldEnd,
+            List<String> newKeys, int newEnd) {
+        int[][] common = new int[oldEnd - start + 1][newEnd - start + 1];
+        for (int i = oldEnd - 1; i >= start; --i) {
+            for (int j = newEnd - 1; j >= start; --j) {
+                int oi = i - start;
+                int nj = j - start;
+                if (sentKeys.get(i).equals(newKeys.get(j))) {
+                    common[oi][nj] = common[oi + 1][nj + 1] + 1;
+                } else {
+                    common[oi][nj] = Math.max(common[oi + 1][nj],
+                            common[oi][nj + 1]);
+                }
+            }
+        }
+        return common;
+    }
+
+    private static int at(int[][] common, int start, int i, int j) {
+        return common[i - start][j - start];
+    }
+
+    /**
+     * Checks whether more rows are present both in the sent rows and in the
+     * new rows than in their longest common subsequence, which means that
+     * some rows have changed places.
+     */
+    private boolean hasMovedRows(List<String> newKeys, int commonLength) {
+        Set<String> oldKeySet = new HashSet<>(sentKeys);
+        int present = 0;
+        for (String key : newKeys) {
+            if (oldKeySet.contains(key)) {
+                ++present;
+            }
+        }
+        return present > commonLength;
+    }
+
+    /**
+     * Keeps track of the rows sent to the client-side for incremental updates.
+     * The tracked rows form one continuous range, just like the client-side
+     * cache.
+     *
+     * @param firstIndex
+     *            first index of sent data
+     * @param keys
+     *            keys of sent data
+     * @param rows
+     *            sent json objects
+     */
+    private void trackSentRows(int firstIndex, List<String> keys,
+            List<JsonObject> rows) {
+        int sentEnd = sentStart + sentKeys.size();
+        int lastIndex = firstIndex + keys.size();
+        if (sentKeys.isEmpty() || firstIndex > sentEnd
+                || lastIndex < sentStart) {
+            sentStart = firstIndex;
+            sentKeys.clear();
+            sentRows.clear();
+            sentEnd = firstIndex;
+        }
+
+        int start = Math.min(sentStart, firstIndex);
+        int end = Math.max(sentEnd, lastIndex);
+        List<String> mergedKeys = new ArrayList<>(end - start);
+        List<JsonObject> mergedRows = new ArrayList<>(end - start);
+        for (int index = start; index < end; ++index) {
+            if (index >= firstIndex && index < lastIndex) {
+                mergedKeys.add(keys.get(index - firstIndex));
+                mergedRows.add(rows.get(index - firstIndex));
+            } else {
+                mergedKeys.add(sentKeys.get(index - sentStart));
+                mergedRows.add(sentRows.get(index - sentStart));
+            }
+        }
+
+        sentStart = start;
+        sentKeys.clear();
+        sentKeys.addAll(mergedKeys);
+        sentRows.clear();
+        sentRows.addAll(mergedRows);
+    }
+
+    /**
+     * Removes rows dropped by the client-side from the edges of the tracked
+     * range of sent rows.
+     *
+     * @param droppedKeys
+     *            keys of dropped rows
+     */
+    private void trimSentRows(Set<String> droppedKeys) {
+        while (!sentKeys.isEmpty() && droppedKeys.contains(sentKeys.get(0))) {
+            sentKeys.remove(0);
+            sentRows.remove(0);
+            ++sentStart;
+        }
+        while (!sentKeys.isEmpty() && droppedKeys
+                .contains(sentKeys.get(sentKeys.size() - 1))) {
+            sentKeys.remove(sentKeys.size() - 1);
+            sentRows.remove(sentRows.size() - 1);
+        }
+    }
+
+    /**
+     * Sets whether changes in the data are sent to the client-side as
+     * incremental updates. When enabled, a reset of the data compares the rows
+     * currently cached on the client-side with the current data in the same
+     * range and sends only the removed, inserted and changed rows instead of
+     * invalidating all data on the client-side. Rows are identified using the
+     * keys from {@link #getKeyMapper()}.
+     * <p>
+     * Incremental updates are disabled by default.
+     *
+     * @param incrementalUpdates
+     *            {@code true} to send incremental updates; {@code false} to
+     *            reset all data on the client-side
+     */
+    public void setIncrementalUpdates(boolean incrementalUpdates) {
+        this.incrementalUpdates = incrementalUpdates;
+        if (!incrementalUpdates) {
+            sentKeys.clear();
+            sentRows.clear();
+        }
+    }
+
+    /**
+     * Gets whether changes in the data are sent to the client-side as
+     * incremental updates.
+     *
+     * @return {@code true} if incremental updates are sent; {@code false} if
+     *         all data is reset on the client-side
+     */
+    public boolean isIncrementalUpdates() {
+        return incrementalUpdates;
+    }
+
+    /**
+     * Informs this DataCommunicator that the data in the data source has
+     * changed. Any data and sizes cached by a {@link BackEndDataSource} are
+     * cleared.
+     *
+     * @see #setIncrementalUpdates(boolean)
+     */
+    public void refreshAll() {
+        if (getDataSource() instanceof BackEndDataSource) {
+            ((BackEndDataSource<?>) getDataSource()).clearCache();
+        }
+        clearDataObjectCache();
+        reset();
+    }
+
+    /**
+     * Gets all the data of an in-memory data source in the current sort order.
+     * The list is built once and reused for all row requests until the data
+     * source or its sorting changes, or {@link #reset()} is called.
+     *
+     * @return sorted list of all in-memory data
+     */
+    protected List<T> getInMemoryData() {
+        if (inMemoryData == null) {
+            // We can safely request all the data when in memory
+            // FIXME: filter.
+            List<T> data = getDataSource().apply(new Query())
+                    .collect(Collectors.toList());
+            if (inMemorySorting != null) {
+                if (parallelSortThreshold >= 0
+                        && data.size() >= parallelSortThreshold) {
+                    @SuppressWarnings("unchecked")
+                    T[] array = (T[]) data.toArray();
+                    Arrays.parallelSort(array, inMemorySorting);
+                    data = Arrays.asList(array);
+                } else {
+                    data.sort(inMemorySorting);
+                }
+            }
+            inMemoryData = data;
+        }
+        return inMemoryData;
+    }
+
+    /**
+     * Sets the minimum size of in-memory data for which sorting is done in
+     * parallel using {@link Arrays#parallelSort(Object[], Comparator)}. Parallel
+     * sorting is disabled by default.
+     *
+     * @param threshold
+     *            minimum amount of data to sort in parallel; negative value
+     *            to disable parallel sorting
+     */
+    public void setParallelSortThreshold(int threshold) {
+        parallelSortThreshold = threshold;
+        reset();
+    }
+
+    /**
+     * Gets the minimum size of in-memory data for which sorting is done in
+     * parallel.
+     *
+     * @return minimum amount of data to sort in parallel; negative value if
+     *         parallel sorting is disabled
+     */
+    public int getParallelSortThreshold() {
+        return parallelSortThreshold;
+    }
+
+    /**
+     * Requests data for given query from the back end using the back end
+     * executor. The data is pushed to the client-side in {@link UI#access}
+     * once it is available, unless the request has been superseded by a newer
+     * request or a reset.
+     *
+     * @param offset
+     *            first index of requested data
+     * @param query
+     *            query to pass to the data source
+     */
+    private void fetchAsync(int offset, Query query) {
+        cancelPendingFetch();
+
+        UI ui = getUI();
+        DataSource<T> source = getDataSource();
+        CompletableFuture<List<T>> fetch = CompletableFuture.supplyAsync(
+                () -> source.apply(query).collect(Collectors.toList()),
+                backEndExecutor);
+        pendingFetch = fetch;
+        fetch.whenComplete((rows, throwable) -> {
+            if (throwable instanceof CancellationException) {
+                return;
+            }
+            ui.access(() -> {
+                if (pendingFetch != fetch) {
+                    // Superseded by a newer request
+                    return;
+                }
+                pendingFetch = null;
+                if (throwable != null) {
+                    throw new RuntimeException(
+                            "Fetching data from the back end failed",
+                            throwable);
+                }
+                pushData(offset, rows.stream());
+            });
+        });
+    }
+
+    /**
+     * Gets the size of the data source for given query. If the data source
+     * has an expired cached size and a back end executor is set, the cached
+     * size is returned as an estimate. The actual size is then requested with
+     * the executor, and the data is reset if the size has changed.
+     *
+     * @param query
+     *            query with filtering
+     * @return the size of the data source
+     */
+    private int getDataSourceSize(Query query) {
+        DataSource<T> source = getDataSource();
+        UI ui = getUI();
+        if (backEndExecutor != null && ui != null
+                && source instanceof BackEndDataSource) {
+            BackEndDataSource<T> backEnd = (BackEndDataSource<T>) source;
+            OptionalInt cachedSize = backEnd.getCachedSize(query);
+            if (cachedSize.isPresent() && !backEnd.isCachedSizeValid(query)) {
+                int estimate = cachedSize.getAsInt();
+                CompletableFuture
+                        .supplyAsync(() -> backEnd.size(query),
+                                backEndExecutor)
+                        .whenComplete((size, throwable) -> ui.access(() -> {
+                            if (throwable != null) {
+                                throw new RuntimeException(
+                                        "Fetching size from the back end failed",
+                                        throwable);
+                            }
+                            if (getDataSource() == backEnd
+                                    && size.intValue() != estimate) {
+                                reset();
+                            }
+                        }));
+                return estimate;
+            }
+        }
+        return source.size(query);
+    }
+
+    private void cancelPendingFetch() {
+        if (pendingFetch != null) {
+            pendingFetch.cancel(false);
+            pendingFetch = null;
+        }
+    }
+
+    /**
+     * Sets the executor used for requesting data from a back end data source.
+     * When an executor is set, the data source is queried outside of the
+     * session lock and the rows are sent to the client-side asynchronously
+     * using {@link UI#access(Runnable)}. Until then, the client-side shows
+     * placeholder rows. Requests superseded by newer requests are cancelled.
+     * <p>
+     * Server push should be enabled for the rows to be sent as soon as they
+     * are available. The size of the data is requested synchronously, unless
+     * the data source has an expired cached size that can be used as an
+     * estimate, see {@link BackEndDataSource#setSizeValidMilliSeconds(long)}.
+     * In-memory data sources are not affected by this setting.
+     *
+     * @param executor
+     *            executor for back end requests; {@code null} to request data
+     *            synchronously
+     */
+    public void setBackEndExecutor(Executor executor) {
+        cancelPendingFetch();
+        backEndExecutor = executor;
+    }
+
+    /**
+     * Gets the executor used for requesting data from a back end data source.
+     *
+     * @return executor for back end requests; {@code null} if data is
+     *         requested synchronously
+     */
+    public Executor getBackEndExecutor() {
+        return backEndExecutor;
+    }
+
     /**
      * Adds a {@link TypedDataGenerator} to this {@link DataCommunicator}.
      *
@@ -255,6 +820,7 @@ public class DataCommunicator<T> extends AbstractExtension {
      */
     public void addDataGenerator(TypedDataGenerator<T> generator) {
         generators.add(generator);
+        clearDataObjectCache();
     }
 
     /**
@@ -265,6 +831,7 @@ public class DataCommunicator<T> extends AbstractExtension {
      */
     public void removeDataGenerator(TypedDataGenerator<T> generator) {
         generators.remove(generator);
+        clearDataObjectCache();
     }
 
     /**
@@ -291,11 +858,19 @@ public class DataCommunicator<T> extends AbstractExtension {
 
         int i = 0;
         List<T> collected = data.collect(Collectors.toList());
+        List<JsonObject> rows = new ArrayList<>(collected.size());
         for (T item : collected) {
-            dataArray.set(i++, getDataObject(item));
+            JsonObject dataObject = getDataObject(item);
+            dataArray.set(i++, dataObject);
+            rows.add(dataObject);
         }
 
         rpc.setData(firstIndex, dataArray);
+        if (incrementalUpdates) {
+            trackSentRows(firstIndex, collected.stream()
+                    .map(getKeyMapper()::key).collect(Collectors.toList()),
+                    rows);
+        }
         handler.addActiveData(collected.stream());
         handler.cleanUp(collected.stream());
     }
@@ -309,15 +884,75 @@ public class DataCommunicator<T> extends AbstractExtension {
      * @return json object representing the data object
      */
     protected JsonObject getDataObject(T data) {
+        String key = null;
+        if (dataObjectCaching) {
+            key = getKeyMapper().key(data);
+            GeneratedData<T> cached = getDataObjectCache().get(key);
+            if (cached != null && cached.data == data) {
+                return cached.json;
+            }
+        }
+
         JsonObject dataObject = Json.createObject();
 
         for (TypedDataGenerator<T> generator : generators) {
             generator.generateData(data, dataObject);
         }
 
+        if (dataObjectCaching) {
+            getDataObjectCache().put(key,
+                    new GeneratedData<>(data, dataObject));
+        }
         return dataObject;
     }
 
+    private Map<String, GeneratedData<T>> getDataObjectCache() {
+        if (dataObjectCache == null) {
+            dataObjectCache = new HashMap<>();
+        }
+        return dataObjectCache;
+    }
+
+    private void evictDataObject(String key) {
+        if (dataObjectCache != null) {
+            dataObjectCache.remove(key);
+        }
+    }
+
+    private void clearDataObjectCache() {
+        dataObjectCache = null;
+    }
+
+    /**
+     * Sets whether generated json objects are cached. When enabled, the json
+     * object generated for a data object is reused as long as the data object
+     * is active on the client-side, instead of running all data generators
+     * again each time the data object is sent. A json object is only reused
+     * for the same data object instance.
+     * <p>
+     * Cached json objects are regenerated when {@link #refresh(Object)} or
+     * {@link #refreshAll()} is called, or when data generators are added or
+     * removed. Caching is disabled by default.
+     *
+     * @param dataObjectCaching
+     *            {@code true} to cache generated json objects; {@code false}
+     *            to always generate them
+     */
+    public void setDataObjectCaching(boolean dataObjectCaching) {
+        this.dataObjectCaching = dataObjectCaching;
+        clearDataObjectCache();
+    }
+
+    /**
+     * Gets whether generated json objects are cached.
+     *
+     * @return {@code true} if generated json objects are cached; {@code false}
+     *         if not
+     */
+    public boolean isDataObjectCaching() {
+        return dataObjectCaching;
+    }
+
     /**
      * Drops data objects identified by given keys from memory. This will invoke
      * {@link TypedDataGenerator#destroyData} for each of those objects.
@@ -332,6 +967,8 @@ public class DataCommunicator<T> extends AbstractExtension {
             T data = getKeyMapper().get(key);
             assert data != null : "Bookkeepping failure. No data object to match key";
 
+            evictDataObject(key);
+
             for (TypedDataGenerator<T> g : generators) {
                 g.destroyData(data);
             }
@@ -342,6 +979,8 @@ public class DataCommunicator<T> extends AbstractExtension {
      * Informs the DataProvider that the collection has changed.
      */
     protected void reset() {
+        inMemoryData = null;
+        cancelPendingFetch();
         if (reset) {
             return;
         }
@@ -426,6 +1065,7 @@ public class DataCommunicator<T> extends AbstractExtension {
      */
     public void setDataSource(DataSource<T> dataSource) {
         this.dataSource = dataSource;
+        clearDataObjectCache();
         reset();
     }
 }
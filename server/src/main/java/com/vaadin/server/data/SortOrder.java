@@ -16,6 +16,7 @@
 package com.vaadin.server.data;
 
 import java.io.Serializable;
+import java.util.Objects;
 
 import com.vaadin.shared.data.sort.SortDirection;
 
@@ -60,4 +61,22 @@ public class SortOrder<T> implements Serializable {
     public SortDirection getDirection() {
         return direction;
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        SortOrder<?> other = (SortOrder<?>) obj;
+        return Objects.equals(sorted, other.sorted)
+                && direction == other.direction;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sorted, direction);
+    }
 }
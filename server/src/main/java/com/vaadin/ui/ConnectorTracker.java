@@ -24,6 +24,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.NavigableMap;
 import java.util.Set;
 import java.util.TreeMap;
@@ -35,6 +36,7 @@ import com.vaadin.server.AbstractClientConnector;
 import com.vaadin.server.ClientConnector;
 import com.vaadin.server.DragAndDropService;
 import com.vaadin.server.GlobalResourceHandler;
+import com.vaadin.server.JsonCodec;
 import com.vaadin.server.LegacyCommunicationManager;
 import com.vaadin.server.StreamVariable;
 import com.vaadin.server.VaadinRequest;
@@ -44,6 +46,7 @@ import com.vaadin.server.communication.ConnectorHierarchyWriter;
 import elemental.json.Json;
 import elemental.json.JsonException;
 import elemental.json.JsonObject;
+import elemental.json.JsonValue;
 
 /**
  * A class which takes care of book keeping of {@link ClientConnector}s for a
@@ -81,7 +84,14 @@ public class ConnectorTracker implements Serializable {
     private boolean writingResponse = false;
 
     private UI uI;
+    /*
+     * Diff states are stored in a compact form containing only the fields that
+     * differ from the default state of the state type. Diff states that are
+     * used while handling a request are expanded into expandedDiffStates and
+     * compacted again in cleanConnectorMap().
+     */
     private transient Map<ClientConnector, JsonObject> diffStates = new HashMap<ClientConnector, JsonObject>();
+    private transient Map<ClientConnector, JsonObject> expandedDiffStates = new HashMap<ClientConnector, JsonObject>();
 
     /** Maps connectorIds to a map of named StreamVariables */
     private Map<String, Map<String, StreamVariable>> pidToNameToStreamVariable;
@@ -246,6 +256,7 @@ public class ConnectorTracker implements Serializable {
     public void markAllClientSidesUninitialized() {
         uninitializedConnectors.addAll(connectorIdToConnector.values());
         diffStates.clear();
+        expandedDiffStates.clear();
     }
 
     /**
@@ -315,12 +326,14 @@ public class ConnectorTracker implements Serializable {
                 }
                 uninitializedConnectors.remove(connector);
                 diffStates.remove(connector);
+                expandedDiffStates.remove(connector);
                 iterator.remove();
             } else if (!uninitializedConnectors.contains(connector)
                     && !LegacyCommunicationManager
                             .isConnectorVisibleToClient(connector)) {
                 uninitializedConnectors.add(connector);
                 diffStates.remove(connector);
+                expandedDiffStates.remove(connector);
 
                 assert isRemovalSentToClient(connector) : "Connector "
                         + connector + " (id = " + connector.getConnectorId()
@@ -335,6 +348,7 @@ public class ConnectorTracker implements Serializable {
         }
 
         cleanStreamVariables();
+        compactDiffStates();
     }
 
     private boolean isRemovalSentToClient(ClientConnector connector) {
@@ -431,6 +445,7 @@ public class ConnectorTracker implements Serializable {
             }
             uninitializedConnectors.remove(connector);
             diffStates.remove(connector);
+            expandedDiffStates.remove(connector);
         }
         unregisteredConnectors.clear();
     }
@@ -635,12 +650,81 @@ public class ConnectorTracker implements Serializable {
 
     public JsonObject getDiffState(ClientConnector connector) {
         assert getConnector(connector.getConnectorId()) == connector;
-        return diffStates.get(connector);
+        JsonObject diffState = expandedDiffStates.get(connector);
+        if (diffState == null) {
+            JsonObject compactState = diffStates.get(connector);
+            if (compactState != null) {
+                diffState = expandDiffState(connector, compactState);
+                expandedDiffStates.put(connector, diffState);
+            }
+        }
+        return diffState;
     }
 
     public void setDiffState(ClientConnector connector, JsonObject diffState) {
         assert getConnector(connector.getConnectorId()) == connector;
         diffStates.put(connector, diffState);
+        expandedDiffStates.put(connector, diffState);
+    }
+
+    /**
+     * Creates a full diff state from a compact diff state containing only the
+     * fields that differ from the default state.
+     */
+    private static JsonObject expandDiffState(ClientConnector connector,
+            JsonObject compactState) {
+        JsonObject referenceState = LegacyCommunicationManager
+                .getReferenceDiffState(connector.getStateType());
+        if (referenceState == null) {
+            return compactState;
+        }
+        JsonObject diffState = Json.createObject();
+        for (String key : referenceState.keys()) {
+            // Values are never modified in place, so they can be shared
+            JsonValue value = referenceState.get(key);
+            diffState.put(key, value);
+        }
+        for (String key : compactState.keys()) {
+            JsonValue value = compactState.get(key);
+            diffState.put(key, value);
+        }
+        return diffState;
+    }
+
+    /**
+     * Creates a compact diff state containing only the fields of the given
+     * diff state that differ from the default state.
+     */
+    private static JsonObject compactDiffState(ClientConnector connector,
+            JsonObject diffState) {
+        JsonObject referenceState = LegacyCommunicationManager
+                .getReferenceDiffState(connector.getStateType());
+        if (referenceState == null) {
+            return diffState;
+        }
+        JsonObject compactState = Json.createObject();
+        for (String key : diffState.keys()) {
+            JsonValue value = diffState.get(key);
+            JsonValue referenceValue = referenceState.get(key);
+            if (referenceValue == null || (value != referenceValue
+                    && !JsonCodec.jsonEquals(value, referenceValue))) {
+                compactState.put(key, value);
+            }
+        }
+        return compactState;
+    }
+
+    /**
+     * Replaces the diff states that have been used since the previous call
+     * with their compact representations.
+     */
+    private void compactDiffStates() {
+        for (Entry<ClientConnector, JsonObject> entry : expandedDiffStates
+                .entrySet()) {
+            diffStates.put(entry.getKey(),
+                    compactDiffState(entry.getKey(), entry.getValue()));
+        }
+        expandedDiffStates.clear();
     }
 
     public boolean isDirty(ClientConnector connector) {
@@ -705,11 +789,18 @@ public class ConnectorTracker implements Serializable {
             throws IOException {
         out.defaultWriteObject();
         // Convert JsonObjects in diff state to String representation as
-        // JsonObject is not serializable
+        // JsonObject is not serializable. Expanded diff states are compacted
+        // only for the stream, since the session lock might not be held when
+        // serializing.
         HashMap<ClientConnector, String> stringDiffStates = new HashMap<ClientConnector, String>(
                 diffStates.size() * 2);
-        for (ClientConnector key : diffStates.keySet()) {
-            stringDiffStates.put(key, diffStates.get(key).toString());
+        for (Entry<ClientConnector, JsonObject> entry : diffStates
+                .entrySet()) {
+            ClientConnector key = entry.getKey();
+            JsonObject expandedState = expandedDiffStates.get(key);
+            JsonObject compactState = expandedState == null ? entry.getValue()
+                    : compactDiffState(key, expandedState);
+            stringDiffStates.put(key, compactState.toString());
         }
         out.writeObject(stringDiffStates);
     }
@@ -727,6 +818,7 @@ public class ConnectorTracker implements Serializable {
                 .readObject();
         diffStates = new HashMap<ClientConnector, JsonObject>(
                 stringDiffStates.size() * 2);
+        expandedDiffStates = new HashMap<ClientConnector, JsonObject>();
         for (ClientConnector key : stringDiffStates.keySet()) {
             try {
                 diffStates.put(key, Json.parse(stringDiffStates.get(key)));
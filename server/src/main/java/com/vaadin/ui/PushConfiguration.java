@@ -162,10 +162,100 @@ public interface PushConfiguration extends Serializable {
      */
     public String getPushUrl();
 
+    /**
+     * Sets the minimum interval between two push messages originating from the
+     * server. If changes are pushed again before the interval has elapsed
+     * since the previous push, or while the previous push message is still
+     * being sent, the push is deferred and all changes made in the meantime are
+     * sent in one message once the interval has elapsed.
+     * <p>
+     * This can be used for protecting the server and slow clients when
+     * background threads update the UI very frequently. Responses to client
+     * requests are never deferred. The default value is 0, which means that
+     * changes are pushed right away.
+     *
+     * @since 8.0
+     * @param minPushInterval
+     *            the minimum interval between push messages in milliseconds,
+     *            or 0 to push changes right away
+     * @throws IllegalArgumentException
+     *             if the interval is negative
+     */
+    public void setMinPushInterval(int minPushInterval);
+
+    /**
+     * Returns the minimum interval between two push messages originating from
+     * the server.
+     *
+     * @since 8.0
+     * @return the minimum interval between push messages in milliseconds, or 0
+     *         if changes are pushed right away
+     * @see #setMinPushInterval(int)
+     */
+    public int getMinPushInterval();
+
+    /**
+     * Sets the number of dirty connectors after which changes are pushed right
+     * away even if the push would otherwise be deferred because of the
+     * {@link #setMinPushInterval(int) minimum push interval}. This limits the
+     * size of the message that is built when pushes are deferred. The default
+     * value is 0, which means that there is no limit.
+     *
+     * @since 8.0
+     * @param maxPendingChanges
+     *            the number of dirty connectors that causes an immediate push,
+     *            or 0 for no limit
+     * @throws IllegalArgumentException
+     *             if the number is negative
+     */
+    public void setMaxPendingChanges(int maxPendingChanges);
+
+    /**
+     * Returns the number of dirty connectors after which changes are pushed
+     * right away even if the minimum push interval has not elapsed.
+     *
+     * @since 8.0
+     * @return the number of dirty connectors that causes an immediate push, or
+     *         0 if there is no limit
+     * @see #setMaxPendingChanges(int)
+     */
+    public int getMaxPendingChanges();
+
+    /**
+     * Sets the maximum time a change can wait for a deferred push. A deferred
+     * push is normally sent once the {@link #setMinPushInterval(int) minimum
+     * push interval} has elapsed and the previous push message has been sent,
+     * which can take arbitrarily long for a slow client. Once changes have
+     * been waiting for this long, they are pushed even if the previous message
+     * is still being sent. The default value is 0, which means that there is
+     * no limit.
+     *
+     * @since 8.0
+     * @param maxPushLatency
+     *            the maximum time in milliseconds before deferred changes are
+     *            pushed, or 0 for no limit
+     * @throws IllegalArgumentException
+     *             if the time is negative
+     */
+    public void setMaxPushLatency(int maxPushLatency);
+
+    /**
+     * Returns the maximum time a change can wait for a deferred push.
+     *
+     * @since 8.0
+     * @return the maximum time in milliseconds before deferred changes are
+     *         pushed, or 0 if there is no limit
+     * @see #setMaxPushLatency(int)
+     */
+    public int getMaxPushLatency();
+
 }
 
 class PushConfigurationImpl implements PushConfiguration {
     private UI ui;
+    private int minPushInterval = 0;
+    private int maxPendingChanges = 0;
+    private int maxPushLatency = 0;
 
     public PushConfigurationImpl(UI ui) {
         this.ui = ui;
@@ -328,6 +418,48 @@ class PushConfigurationImpl implements PushConfiguration {
 
     }
 
+    @Override
+    public void setMinPushInterval(int minPushInterval) {
+        if (minPushInterval < 0) {
+            throw new IllegalArgumentException(
+                    "Minimum push interval cannot be negative");
+        }
+        this.minPushInterval = minPushInterval;
+    }
+
+    @Override
+    public int getMinPushInterval() {
+        return minPushInterval;
+    }
+
+    @Override
+    public void setMaxPendingChanges(int maxPendingChanges) {
+        if (maxPendingChanges < 0) {
+            throw new IllegalArgumentException(
+                    "Maximum number of pending changes cannot be negative");
+        }
+        this.maxPendingChanges = maxPendingChanges;
+    }
+
+    @Override
+    public int getMaxPendingChanges() {
+        return maxPendingChanges;
+    }
+
+    @Override
+    public void setMaxPushLatency(int maxPushLatency) {
+        if (maxPushLatency < 0) {
+            throw new IllegalArgumentException(
+                    "Maximum push latency cannot be negative");
+        }
+        this.maxPushLatency = maxPushLatency;
+    }
+
+    @Override
+    public int getMaxPushLatency() {
+        return maxPushLatency;
+    }
+
     private PushConfigurationState getState() {
         return ui.getState().pushConfiguration;
     }
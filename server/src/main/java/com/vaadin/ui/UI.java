@@ -247,9 +247,10 @@ public abstract class UI extends AbstractSingleComponentContainer
     /**
      * Timestamp keeping track of the last heartbeat of this UI. Updated to the
      * current time whenever the application receives a heartbeat or UIDL
-     * request from the client for this UI.
+     * request from the client for this UI. Volatile since heartbeat requests
+     * update it without holding the session lock.
      */
-    private long lastHeartbeatTimestamp = System.currentTimeMillis();
+    private volatile long lastHeartbeatTimestamp = System.currentTimeMillis();
 
     private boolean closing = false;
 
@@ -269,6 +270,14 @@ public abstract class UI extends AbstractSingleComponentContainer
      */
     private int lastProcessedClientToServerId = -1;
 
+    /**
+     * The last UIDL response written to the client and the server sync id
+     * following it, kept for resending the response if the client resends the
+     * message it was a response to.
+     */
+    private transient String lastUidlResponse;
+    private transient int lastUidlResponseSyncId;
+
     /**
      * Creates a new empty UI without a caption. The content of the UI must be
      * set by calling {@link #setContent(Component)} before using the UI.
@@ -1174,7 +1183,8 @@ public abstract class UI extends AbstractSingleComponentContainer
      * <p>
      * This method is not intended to be overridden. If it is overridden, care
      * should be taken since this method might be called in situations where
-     * {@link UI#getCurrent()} does not return this UI.
+     * {@link UI#getCurrent()} does not return this UI. Heartbeat requests
+     * call this method without locking the session.
      *
      * @param lastHeartbeat
      *            The time the last heartbeat request occurred, in milliseconds
@@ -1738,4 +1748,39 @@ public abstract class UI extends AbstractSingleComponentContainer
             int lastProcessedClientToServerId) {
         this.lastProcessedClientToServerId = lastProcessedClientToServerId;
     }
+
+    /**
+     * Sets the UIDL response that was just written to the client, so that it
+     * can be sent again if the client resends the last processed message.
+     *
+     * Used internally for communication tracking.
+     *
+     * @param response
+     *            the response written to the client, or <code>null</code> to
+     *            not keep any response
+     * @since 8.0
+     */
+    public void setLastUidlResponse(String response) {
+        lastUidlResponse = response;
+        lastUidlResponseSyncId = getConnectorTracker().getCurrentSyncId();
+    }
+
+    /**
+     * Gets the UIDL response that was written for the last processed message
+     * from the client. A response is available only if no other messages have
+     * been sent to the client after it.
+     *
+     * Used internally for communication tracking.
+     *
+     * @return the last response written to the client, or <code>null</code>
+     *         if it is not available
+     * @since 8.0
+     */
+    public String getLastUidlResponse() {
+        if (lastUidlResponseSyncId != getConnectorTracker()
+                .getCurrentSyncId()) {
+            return null;
+        }
+        return lastUidlResponse;
+    }
 }
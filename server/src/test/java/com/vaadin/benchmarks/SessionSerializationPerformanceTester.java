@@ -0,0 +1,126 @@
+package com.vaadin.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+import org.easymock.EasyMock;
+
+import com.vaadin.server.CompactSessionSerializer;
+import com.vaadin.server.MockServletConfig;
+import com.vaadin.server.MockVaadinSession;
+import com.vaadin.server.SessionSerializer;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinServlet;
+import com.vaadin.server.VaadinServletService;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+import com.vaadin.ui.Button;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.TextField;
+import com.vaadin.ui.UI;
+import com.vaadin.ui.VerticalLayout;
+
+/*
+ * Measures the size and the time needed for serializing and deserializing a
+ * session, as done when a session is replicated in a cluster, using regular
+ * Java serialization and the CompactSessionSerializer.
+ *
+ * The session contains 5 UIs, each with 200 rows of components.
+ */
+public class SessionSerializationPerformanceTester {
+
+    private static final int UIS = 5;
+    private static final int ROWS = 200;
+    private static final int LOOPS = 200;
+
+    public static void main(String[] args) throws Exception {
+        VaadinServlet servlet = new VaadinServlet();
+        servlet.init(new MockServletConfig());
+        VaadinServletService service = new VaadinServletService(servlet,
+                new MockDeploymentConfiguration());
+        VaadinSession session = createSession(service);
+
+        SessionSerializer java = new SessionSerializer() {
+            @Override
+            public void serialize(VaadinSession session, OutputStream out)
+                    throws IOException {
+                ObjectOutputStream objectStream = new ObjectOutputStream(out);
+                objectStream.writeObject(session);
+                objectStream.flush();
+            }
+
+            @Override
+            public VaadinSession deserialize(InputStream in)
+                    throws IOException, ClassNotFoundException {
+                return (VaadinSession) new ObjectInputStream(in).readObject();
+            }
+        };
+
+        // Warmup
+        runBenchmark("warmup", java, session, LOOPS);
+        runBenchmark("warmup", new CompactSessionSerializer(), session,
+                LOOPS);
+
+        runBenchmark("Java serialization", java, session, LOOPS);
+        runBenchmark("CompactSessionSerializer",
+                new CompactSessionSerializer(), session, LOOPS);
+
+        service.destroy();
+    }
+
+    private static void runBenchmark(String name, SessionSerializer serializer,
+            VaadinSession session, int loops) throws Exception {
+        byte[] bytes = null;
+        long serializeTime = 0;
+        long deserializeTime = 0;
+        for (int i = 0; i < loops; i++) {
+            long start = System.nanoTime();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            serializer.serialize(session, out);
+            bytes = out.toByteArray();
+            long middle = System.nanoTime();
+            serializer.deserialize(new ByteArrayInputStream(bytes));
+            long end = System.nanoTime();
+
+            serializeTime += middle - start;
+            deserializeTime += end - middle;
+        }
+        System.out.println(name + ": " + bytes.length + " bytes, "
+                + serializeTime / loops / 1000 + " us to serialize, "
+                + deserializeTime / loops / 1000 + " us to deserialize");
+    }
+
+    private static VaadinSession createSession(VaadinServletService service) {
+        VaadinSession session = new MockVaadinSession(service);
+        VaadinRequest request = EasyMock.createNiceMock(VaadinRequest.class);
+
+        session.lock();
+        try {
+            for (int i = 0; i < UIS; i++) {
+                UI ui = new UI() {
+                    @Override
+                    protected void init(VaadinRequest request) {
+                        VerticalLayout layout = new VerticalLayout();
+                        for (int row = 0; row < ROWS; row++) {
+                            layout.addComponents(new Label("Row " + row),
+                                    new TextField("Field " + row),
+                                    new Button("Button " + row));
+                        }
+                        setContent(layout);
+                    }
+                };
+                ui.setSession(session);
+                ui.doInit(request, session.getNextUIid(), null);
+                session.addUI(ui);
+            }
+        } finally {
+            session.unlock();
+        }
+        return session;
+    }
+}
@@ -152,5 +152,30 @@ public class AbstractDeploymentConfigurationTest {
             return DefaultDeploymentConfiguration.DEFAULT_SEND_URLS_AS_PARAMETERS;
         }
 
+        @Override
+        public boolean isUidlStreamingEnabled() {
+            return DefaultDeploymentConfiguration.DEFAULT_UIDL_STREAMING;
+        }
+
+        @Override
+        public int getMaxReplayableResponseSize() {
+            return DefaultDeploymentConfiguration.DEFAULT_MAX_REPLAYABLE_RESPONSE_SIZE;
+        }
+
+        @Override
+        public int getStaticResourceCacheSize() {
+            return DefaultDeploymentConfiguration.DEFAULT_STATIC_RESOURCE_CACHE_SIZE;
+        }
+
+        @Override
+        public int getSessionReaperInterval() {
+            return DefaultDeploymentConfiguration.DEFAULT_SESSION_REAPER_INTERVAL;
+        }
+
+        @Override
+        public int getSessionReaperMaxSessions() {
+            return DefaultDeploymentConfiguration.DEFAULT_SESSION_REAPER_MAX_SESSIONS;
+        }
+
     }
 }
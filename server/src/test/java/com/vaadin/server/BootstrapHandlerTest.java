@@ -0,0 +1,138 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.server.communication.ServletBootstrapHandler;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+
+public class BootstrapHandlerTest {
+
+    public static class BootstrapTestUI extends UI {
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+    }
+
+    private String appId;
+    private VaadinServletService service;
+    private MockVaadinSession session;
+
+    @Before
+    public void setUp() throws Exception {
+        VaadinServlet servlet = new VaadinServlet();
+        servlet.init(new MockServletConfig());
+
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setProductionMode(true);
+        service = new VaadinServletService(servlet, configuration) {
+            @Override
+            public String getMainDivId(VaadinSession session,
+                    VaadinRequest request, Class<? extends UI> uiClass) {
+                return appId;
+            }
+
+            @Override
+            public String getStaticFileLocation(VaadinRequest request) {
+                return ".";
+            }
+        };
+        service.init();
+
+        session = new MockVaadinSession(service);
+        session.lock();
+        session.addUIProvider(new UIProvider() {
+            @Override
+            public Class<? extends UI> getUIClass(
+                    UIClassSelectionEvent event) {
+                return BootstrapTestUI.class;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        session.unlock();
+        CurrentInstance.clearAll();
+        service.destroy();
+    }
+
+    @Test
+    public void productionMode_cachedPageSameAsRenderedPage()
+            throws IOException {
+        ServletBootstrapHandler handler = new ServletBootstrapHandler();
+        appId = "ROOT-1";
+        String firstPage = getBootstrapPage(handler);
+        appId = "ROOT-2";
+        String cachedPage = getBootstrapPage(handler);
+
+        String renderedPage = getBootstrapPage(new ServletBootstrapHandler());
+
+        Assert.assertNotEquals(firstPage, cachedPage);
+        Assert.assertTrue(cachedPage
+                .contains("vaadin.initApplication(\"ROOT-2\","));
+        Assert.assertEquals(renderedPage, cachedPage);
+    }
+
+    @Test
+    public void productionMode_bootstrapListener_templateNotUsed()
+            throws IOException {
+        ServletBootstrapHandler handler = new ServletBootstrapHandler();
+        appId = "ROOT-1";
+        getBootstrapPage(handler);
+
+        session.addBootstrapListener(new BootstrapListener() {
+            @Override
+            public void modifyBootstrapFragment(
+                    BootstrapFragmentResponse response) {
+            }
+
+            @Override
+            public void modifyBootstrapPage(BootstrapPageResponse response) {
+                response.getDocument().body().appendElement("div")
+                        .attr("id", "listener");
+            }
+        });
+
+        Assert.assertTrue(
+                getBootstrapPage(handler).contains("<div id=\"listener\">"));
+    }
+
+    private String getBootstrapPage(BootstrapHandler handler)
+            throws IOException {
+        VaadinRequest request = EasyMock.createNiceMock(VaadinRequest.class);
+        EasyMock.expect(request.getService()).andReturn(service).anyTimes();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        VaadinResponse response = EasyMock
+                .createNiceMock(VaadinResponse.class);
+        EasyMock.expect(response.getOutputStream()).andReturn(out).anyTimes();
+        EasyMock.replay(request, response);
+
+        Assert.assertTrue(
+                handler.synchronizedHandleRequest(session, request, response));
+        return out.toString("UTF-8");
+    }
+}
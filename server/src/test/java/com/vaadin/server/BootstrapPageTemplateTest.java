@@ -0,0 +1,59 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BootstrapPageTemplateTest {
+
+    private static final String PAGE = "<html><body>"
+            + "<div id=\"ROOT-1\" class=\"v-app\"></div>"
+            + "<script type=\"text/javascript\">init(\"ROOT-1\");</script>"
+            + "</body></html>";
+
+    @Test
+    public void render_sameValues_originalPage() {
+        BootstrapPageTemplate template = BootstrapPageTemplate.create(PAGE,
+                "ROOT-1", "init(\"ROOT-1\");");
+
+        Assert.assertEquals(PAGE,
+                template.render("ROOT-1", "init(\"ROOT-1\");"));
+    }
+
+    @Test
+    public void render_otherValues_valuesReplaced() {
+        BootstrapPageTemplate template = BootstrapPageTemplate.create(PAGE,
+                "ROOT-1", "init(\"ROOT-1\");");
+
+        Assert.assertEquals("<html><body>"
+                + "<div id=\"app-2\" class=\"v-app\"></div>"
+                + "<script type=\"text/javascript\">start();</script>"
+                + "</body></html>", template.render("app-2", "start();"));
+    }
+
+    @Test
+    public void create_scriptNotInPage_noTemplate() {
+        Assert.assertNull(
+                BootstrapPageTemplate.create(PAGE, "ROOT-1", "other();"));
+    }
+
+    @Test
+    public void create_appIdNotInPage_noTemplate() {
+        Assert.assertNull(BootstrapPageTemplate.create(PAGE, "ROOT-2",
+                "init(\"ROOT-1\");"));
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.server.communication.HeartbeatHandler;
+import com.vaadin.shared.ApplicationConstants;
+import com.vaadin.shared.ui.ui.UIConstants;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+import com.vaadin.tests.util.MockUI;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.UI;
+
+public class CompactSessionSerializerTest {
+
+    private VaadinServletService service;
+    private VaadinSession session;
+    private CompactSessionSerializer serializer = new CompactSessionSerializer();
+
+    @Before
+    public void setUp() throws Exception {
+        VaadinServlet servlet = new VaadinServlet();
+        servlet.init(new MockServletConfig());
+        service = new VaadinServletService(servlet,
+                new MockDeploymentConfiguration());
+
+        session = new MockVaadinSession(service);
+        session.lock();
+        List<Label> labels = new ArrayList<Label>();
+        for (int i = 0; i < 100; i++) {
+            labels.add(new Label("Label " + i));
+        }
+        session.setAttribute("labels", labels);
+        session.setAttribute("numbers", new int[] { 1, 2, 3 });
+        session.setAttribute("type", int.class);
+        session.unlock();
+    }
+
+    @After
+    public void tearDown() {
+        UI.setCurrent(null);
+        VaadinSession.setCurrent(null);
+        service.destroy();
+    }
+
+    @Test
+    public void serializeAndDeserialize_contentsRestored() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.serialize(session, out);
+
+        VaadinSession deserialized = serializer
+                .deserialize(new ByteArrayInputStream(out.toByteArray()));
+
+        @SuppressWarnings("unchecked")
+        List<Label> labels = (List<Label>) getAttribute(deserialized,
+                "labels");
+        Assert.assertEquals(100, labels.size());
+        Assert.assertEquals("Label 99", labels.get(99).getValue());
+        Assert.assertArrayEquals(new int[] { 1, 2, 3 },
+                (int[]) getAttribute(deserialized, "numbers"));
+        Assert.assertSame(int.class, getAttribute(deserialized, "type"));
+    }
+
+    @Test
+    public void serialize_smallerThanJavaSerialization() throws Exception {
+        ByteArrayOutputStream compact = new ByteArrayOutputStream();
+        serializer.serialize(session, compact);
+
+        ByteArrayOutputStream java = new ByteArrayOutputStream();
+        ObjectOutputStream objectStream = new ObjectOutputStream(java);
+        objectStream.writeObject(session);
+        objectStream.close();
+
+        Assert.assertTrue(compact.size() < java.size());
+    }
+
+    @Test
+    public void holder_unmodifiedSession_serializedFormReused()
+            throws Exception {
+        SerializedVaadinSession holder = new SerializedVaadinSession(session,
+                serializer);
+
+        byte[] first = holder.getSerializedSession();
+        Assert.assertSame(first, holder.getSerializedSession());
+
+        session.lock();
+        session.setAttribute("modified", Boolean.TRUE);
+        session.unlock();
+
+        Assert.assertNotSame(first, holder.getSerializedSession());
+    }
+
+    @Test
+    public void holder_heartbeatWithoutLock_serializedAgain()
+            throws Exception {
+        session.lock();
+        UI ui = new MockUI(session);
+        ui.doInit(EasyMock.createNiceMock(VaadinRequest.class), 0, null);
+        session.addUI(ui);
+        ui.setLastHeartbeatTimestamp(0);
+        session.unlock();
+
+        SerializedVaadinSession holder = new SerializedVaadinSession(session,
+                serializer);
+        byte[] first = holder.getSerializedSession();
+
+        VaadinRequest request = EasyMock.createNiceMock(VaadinRequest.class);
+        EasyMock.expect(request.getPathInfo())
+                .andReturn("/" + ApplicationConstants.HEARTBEAT_PATH + "/");
+        EasyMock.expect(request.getParameter(UIConstants.UI_ID_PARAMETER))
+                .andReturn("0");
+        EasyMock.replay(request);
+        // Handled without the session lock
+        new HeartbeatHandler().handleRequest(session, request,
+                EasyMock.createNiceMock(VaadinResponse.class));
+        Assert.assertNotEquals(0, ui.getLastHeartbeatTimestamp());
+
+        byte[] second = holder.getSerializedSession();
+        Assert.assertNotSame(first, second);
+        VaadinSession deserialized = serializer
+                .deserialize(new ByteArrayInputStream(second));
+        Assert.assertEquals(ui.getLastHeartbeatTimestamp(),
+                deserialized.getUIById(0).getLastHeartbeatTimestamp());
+    }
+
+    @Test
+    public void holder_serializeAndDeserialize_sessionRestored()
+            throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(new SerializedVaadinSession(session, serializer));
+        out.close();
+
+        ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()));
+        VaadinSession deserialized = SerializedVaadinSession
+                .getVaadinSession(in.readObject());
+
+        Assert.assertNotSame(session, deserialized);
+        Assert.assertArrayEquals(new int[] { 1, 2, 3 },
+                (int[]) getAttribute(deserialized, "numbers"));
+    }
+
+    @Test
+    public void storedSession_modifiedAfterUnlock() {
+        service.createSessionAttribute(session);
+        Assert.assertFalse(session.isModifiedSinceStored());
+
+        session.lock();
+        session.unlock();
+
+        Assert.assertTrue(session.isModifiedSinceStored());
+    }
+
+    private static Object getAttribute(VaadinSession deserialized,
+            String name) {
+        // The deserialized session has no service, so lock it directly
+        deserialized.getLockInstance().lock();
+        try {
+            return deserialized.getAttribute(name);
+        } finally {
+            deserialized.getLockInstance().unlock();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.server.JsonCodec.BeanProperty;
+
+public class JsonCodecPropertiesTest {
+
+    public static class PublicBean {
+        public String field = "field";
+        private int property = 42;
+
+        public int getProperty() {
+            return property;
+        }
+
+        public void setProperty(int property) {
+            this.property = property;
+        }
+    }
+
+    static class PackagePrivateBean {
+        public String field = "hidden";
+    }
+
+    @Test
+    public void publicBean_valuesRead() throws Exception {
+        Map<String, Object> values = readProperties(new PublicBean());
+
+        Assert.assertEquals(2, values.size());
+        Assert.assertEquals("field", values.get("field"));
+        Assert.assertEquals(42, values.get("property"));
+    }
+
+    @Test
+    public void publicBean_valuesReadRepeatedly() throws Exception {
+        PublicBean bean = new PublicBean();
+        readProperties(bean);
+
+        bean.field = "changed";
+        bean.setProperty(1);
+        Map<String, Object> values = readProperties(bean);
+
+        Assert.assertEquals("changed", values.get("field"));
+        Assert.assertEquals(1, values.get("property"));
+    }
+
+    @Test
+    public void inaccessibleBean_valuesReadUsingReflection() throws Exception {
+        Map<String, Object> values = readProperties(new PackagePrivateBean());
+
+        Assert.assertEquals("hidden", values.get("field"));
+    }
+
+    private static Map<String, Object> readProperties(Object bean)
+            throws Exception {
+        Map<String, Object> values = new HashMap<String, Object>();
+        for (BeanProperty property : JsonCodec
+                .getProperties(bean.getClass())) {
+            values.put(property.getName(), property.getValue(bean));
+        }
+        return values;
+    }
+}
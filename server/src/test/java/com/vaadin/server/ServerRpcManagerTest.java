@@ -0,0 +1,128 @@
+package com.vaadin.server;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.server.ServerRpcManager.RpcInvocationException;
+import com.vaadin.shared.annotations.Delayed;
+import com.vaadin.shared.annotations.LastOnly;
+import com.vaadin.shared.communication.ServerRpc;
+
+public class ServerRpcManagerTest {
+
+    public interface TestRpc extends ServerRpc {
+        public void call(int number, String text);
+    }
+
+    private interface PrivateRpc extends ServerRpc {
+        public void call(String text);
+    }
+
+    public interface CoalescedRpc extends ServerRpc {
+        @LastOnly
+        public void lastOnly();
+
+        @Delayed(lastOnly = true)
+        public void delayedLastOnly();
+
+        @Delayed
+        public void delayed();
+    }
+
+    private final List<Object> calls = new ArrayList<Object>();
+
+    @Test
+    public void applyInvocation_methodCalled() throws Exception {
+        ServerRpcManager<TestRpc> manager = new ServerRpcManager<TestRpc>(
+                (number, text) -> calls.add(number + text), TestRpc.class);
+
+        manager.applyInvocation(createInvocation(TestRpc.class, "call", 1, "a"));
+        manager.applyInvocation(createInvocation(TestRpc.class, "call", 2, "b"));
+
+        Assert.assertEquals(2, calls.size());
+        Assert.assertEquals("1a", calls.get(0));
+        Assert.assertEquals("2b", calls.get(1));
+    }
+
+    @Test
+    public void applyInvocation_inaccessibleInterface_methodCalled()
+            throws Exception {
+        ServerRpcManager<PrivateRpc> manager = new ServerRpcManager<PrivateRpc>(
+                text -> calls.add(text), PrivateRpc.class);
+
+        manager.applyInvocation(createInvocation(PrivateRpc.class, "call", "a"));
+
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals("a", calls.get(0));
+    }
+
+    @Test
+    public void applyInvocation_exceptionWrapped() {
+        IllegalStateException exception = new IllegalStateException();
+        ServerRpcManager<TestRpc> manager = new ServerRpcManager<TestRpc>(
+                (number, text) -> {
+                    throw exception;
+                }, TestRpc.class);
+
+        try {
+            manager.applyInvocation(
+                    createInvocation(TestRpc.class, "call", 1, "a"));
+            Assert.fail("Exception should have been thrown");
+        } catch (RpcInvocationException e) {
+            Assert.assertTrue(
+                    e.getCause() instanceof InvocationTargetException);
+            Assert.assertSame(exception, e.getCause().getCause());
+        }
+    }
+
+    @Test
+    public void applyInvocation_wrongArgumentType_illegalArgument() {
+        assertInvalidArguments("text", "a");
+    }
+
+    @Test
+    public void applyInvocation_nullPrimitiveArgument_illegalArgument() {
+        assertInvalidArguments(null, "a");
+    }
+
+    private void assertInvalidArguments(Object... parameters) {
+        ServerRpcManager<TestRpc> manager = new ServerRpcManager<TestRpc>(
+                (number, text) -> calls.add(number + text), TestRpc.class);
+
+        try {
+            manager.applyInvocation(
+                    createInvocation(TestRpc.class, "call", parameters));
+            Assert.fail("Exception should have been thrown");
+        } catch (RpcInvocationException e) {
+            // Not reported as an exception thrown by the RPC method
+            Assert.assertTrue(
+                    e.getCause() instanceof IllegalArgumentException);
+        }
+        Assert.assertTrue(calls.isEmpty());
+    }
+
+    @Test
+    public void lastOnlyAnnotations_detected() {
+        Assert.assertTrue(
+                createInvocation(CoalescedRpc.class, "lastOnly").isLastOnly());
+        Assert.assertTrue(createInvocation(CoalescedRpc.class,
+                "delayedLastOnly").isLastOnly());
+        Assert.assertFalse(
+                createInvocation(CoalescedRpc.class, "delayed").isLastOnly());
+        Assert.assertFalse(createInvocation(TestRpc.class, "call", 1, "a")
+                .isLastOnly());
+    }
+
+    private static ServerRpcMethodInvocation createInvocation(
+            Class<? extends ServerRpc> rpcInterface, String methodName,
+            Object... parameters) {
+        ServerRpcMethodInvocation invocation = new ServerRpcMethodInvocation(
+                "1", rpcInterface, methodName, parameters.length);
+        invocation.setParameters(parameters);
+        return invocation;
+    }
+}
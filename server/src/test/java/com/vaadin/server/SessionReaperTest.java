@@ -0,0 +1,153 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import javax.servlet.http.HttpSession;
+
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+
+public class SessionReaperTest {
+
+    private VaadinServletService service;
+    private MockDeploymentConfiguration configuration;
+
+    @Before
+    public void setUp() throws Exception {
+        VaadinServlet servlet = new VaadinServlet();
+        servlet.init(new MockServletConfig());
+
+        configuration = new MockDeploymentConfiguration();
+        configuration.setHeartbeatInterval(1);
+        configuration.setSessionReaperInterval(3600);
+        configuration.setSessionReaperMaxSessions(1);
+        service = new VaadinServletService(servlet, configuration);
+        service.init();
+    }
+
+    @After
+    public void tearDown() {
+        CurrentInstance.clearAll();
+        service.destroy();
+    }
+
+    @Test
+    public void expiredHeartbeat_uiClosedAndRemoved() {
+        VaadinSession session = createSession();
+        UI ui = createUI(session, 0);
+        ui.setLastHeartbeatTimestamp(0);
+
+        service.reapInactiveUIs();
+
+        Assert.assertTrue(ui.isClosing());
+        Assert.assertTrue(session.getUIs().isEmpty());
+    }
+
+    @Test
+    public void activeHeartbeat_uiKept() {
+        VaadinSession session = createSession();
+        UI ui = createUI(session, 0);
+
+        service.reapInactiveUIs();
+
+        Assert.assertFalse(ui.isClosing());
+        Assert.assertEquals(1, session.getUIs().size());
+    }
+
+    @Test
+    public void uiRemovedWithSerializer_sessionStored() {
+        service.setSessionSerializer(new CompactSessionSerializer());
+        VaadinSession session = createSession();
+        createUI(session, 0).setLastHeartbeatTimestamp(0);
+
+        service.reapInactiveUIs();
+
+        Assert.assertFalse(session.isModifiedSinceStored());
+    }
+
+    @Test
+    public void nothingRemovedWithSerializer_sessionNotStored() {
+        service.setSessionSerializer(new CompactSessionSerializer());
+        HttpSession httpSession = EasyMock.createNiceMock(HttpSession.class);
+        httpSession.setAttribute(EasyMock.anyString(), EasyMock.anyObject());
+        EasyMock.expectLastCall()
+                .andThrow(new AssertionError("Session should not be stored"))
+                .anyTimes();
+        EasyMock.replay(httpSession);
+        VaadinSession session = createSession(httpSession);
+        createUI(session, 0);
+
+        service.reapInactiveUIs();
+
+        Assert.assertEquals(1, session.getUIs().size());
+    }
+
+    @Test
+    public void maxSessionsReached_remainingSessionsCheckedNextRun() {
+        UI ui1 = createUI(createSession(), 0);
+        UI ui2 = createUI(createSession(), 0);
+        ui1.setLastHeartbeatTimestamp(0);
+        ui2.setLastHeartbeatTimestamp(0);
+
+        service.reapInactiveUIs();
+        Assert.assertTrue(ui1.isClosing() ^ ui2.isClosing());
+
+        service.reapInactiveUIs();
+        Assert.assertTrue(ui1.isClosing() && ui2.isClosing());
+    }
+
+    private VaadinSession createSession() {
+        return createSession(EasyMock.createNiceMock(HttpSession.class));
+    }
+
+    private VaadinSession createSession(HttpSession httpSession) {
+        final WrappedSession wrappedSession = new WrappedHttpSession(
+                httpSession);
+        VaadinSession session = new MockVaadinSession(service) {
+            @Override
+            public WrappedSession getSession() {
+                return wrappedSession;
+            }
+        };
+        service.registerReapableSession(session);
+        return session;
+    }
+
+    private static UI createUI(VaadinSession session, int uiId) {
+        UI ui = new UI() {
+            @Override
+            protected void init(VaadinRequest request) {
+            }
+        };
+        ui.doInit(EasyMock.createNiceMock(VaadinRequest.class), uiId, null);
+
+        session.lock();
+        try {
+            ui.setSession(session);
+            session.addUI(ui);
+        } finally {
+            session.unlock();
+        }
+        return ui;
+    }
+}
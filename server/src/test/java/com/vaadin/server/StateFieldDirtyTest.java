@@ -0,0 +1,91 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.tests.util.MockUI;
+import com.vaadin.ui.AbstractComponent;
+import com.vaadin.ui.UI;
+
+import elemental.json.JsonObject;
+
+public class StateFieldDirtyTest {
+
+    private static class TestComponent extends AbstractComponent {
+
+        public void setCaptionField(String caption) {
+            getState(false).caption = caption;
+            markStateFieldDirty("caption");
+        }
+
+        public void setDescriptionSilently(String description) {
+            getState(false).description = description;
+        }
+    }
+
+    private UI ui;
+    private TestComponent component;
+
+    @Before
+    public void setUp() {
+        ui = new MockUI();
+        component = new TestComponent();
+        ui.setContent(component);
+
+        component.encodeState();
+        ui.getConnectorTracker().markAllConnectorsClean();
+    }
+
+    @Test
+    public void markStateFieldDirty_onlyGivenFieldEncoded() {
+        component.setDescriptionSilently("description");
+        component.setCaptionField("caption");
+        Assert.assertTrue(ui.getConnectorTracker().isDirty(component));
+
+        JsonObject diff = component.encodeState();
+        Assert.assertEquals(Arrays.asList("caption"),
+                Arrays.asList(diff.keys()));
+        Assert.assertEquals("caption", diff.getString("caption"));
+    }
+
+    @Test
+    public void markAsDirty_wholeStateEncoded() {
+        component.setCaptionField("caption");
+        component.encodeState();
+        ui.getConnectorTracker().markAllConnectorsClean();
+
+        component.setDescriptionSilently("description");
+        component.markAsDirty();
+        component.setCaptionField("caption");
+
+        JsonObject diff = component.encodeState();
+        Assert.assertEquals(Arrays.asList("description"),
+                Arrays.asList(diff.keys()));
+    }
+
+    @Test
+    public void unchangedField_notSent() {
+        component.setCaptionField(null);
+
+        JsonObject diff = component.encodeState();
+        Assert.assertEquals(0, diff.keys().length);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.vaadin.server.StaticResourceCache.CachedResource;
+
+public class StaticResourceCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private StaticResourceCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new StaticResourceCache(800);
+    }
+
+    @Test
+    public void resourceWithoutGzip_contentCached() throws IOException {
+        File file = createFile("plain.js", 10);
+        URL url = file.toURI().toURL();
+
+        CachedResource resource = cache.getResource(url);
+        Assert.assertNotNull(resource);
+        Assert.assertFalse(resource.hasGzipContent());
+        Assert.assertEquals(10, resource.getContent(false).length);
+
+        // Served from the cache even if the file is removed
+        Assert.assertTrue(file.delete());
+        Assert.assertSame(resource, cache.getResource(url));
+        Assert.assertSame(resource, cache.getCachedResource(url));
+    }
+
+    @Test
+    public void resourceWithGzip_bothVariantsCached() throws IOException {
+        File file = createFile("compressed.js", 20);
+        createFile("compressed.js.gz", 5);
+
+        CachedResource resource = cache.getResource(file.toURI().toURL());
+        Assert.assertTrue(resource.hasGzipContent());
+        Assert.assertEquals(20, resource.getContent(false).length);
+        Assert.assertEquals(5, resource.getContent(true).length);
+        Assert.assertNotEquals(resource.getETag(false),
+                resource.getETag(true));
+    }
+
+    @Test
+    public void tooLargeResource_notCached() throws IOException {
+        URL url = createFile("large.js", 101).toURI().toURL();
+
+        Assert.assertNull(cache.getResource(url));
+        Assert.assertNull(cache.getCachedResource(url));
+    }
+
+    @Test
+    public void cacheFull_leastRecentlyUsedEvicted() throws IOException {
+        URL first = createFile("first.js", 100).toURI().toURL();
+        cache.getResource(first);
+        for (int i = 0; i < 8; i++) {
+            cache.getResource(createFile("file" + i + ".js", 100).toURI()
+                    .toURL());
+        }
+
+        Assert.assertNull(cache.getCachedResource(first));
+    }
+
+    @Test
+    public void sameContent_sameETag() throws IOException {
+        CachedResource resource1 = cache
+                .getResource(createFile("a.js", 10).toURI().toURL());
+        CachedResource resource2 = cache
+                .getResource(createFile("b.js", 10).toURI().toURL());
+
+        Assert.assertEquals(resource1.getETag(false), resource2.getETag(false));
+    }
+
+    @Test
+    public void manyResourceUrls_leastRecentlyUsedForgotten()
+            throws IOException {
+        URL url = createFile("a.js", 10).toURI().toURL();
+        cache.putResourceURL("/VAADIN/first.js", url);
+        cache.putResourceURL("/VAADIN/second.js", url);
+        cache.getResourceURL("/VAADIN/first.js");
+        for (int i = 0; i < StaticResourceCache.MAX_URLS - 1; i++) {
+            cache.putResourceURL("/VAADIN//a" + i + ".js", url);
+        }
+
+        Assert.assertSame(url, cache.getResourceURL("/VAADIN/first.js"));
+        Assert.assertNull(cache.getResourceURL("/VAADIN/second.js"));
+    }
+
+    private File createFile(String name, int size) throws IOException {
+        File file = folder.newFile(name);
+        Files.write(file.toPath(), new byte[size]);
+        return file;
+    }
+}
@@ -26,6 +26,11 @@ import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.vaadin.shared.ApplicationConstants;
+import com.vaadin.shared.ui.ui.UIConstants;
+import com.vaadin.tests.util.MockUI;
+import com.vaadin.ui.UI;
+
 /**
  *
  * @author Vaadin Ltd
@@ -140,4 +145,109 @@ public class VaadinServiceTest {
 
         assertThat(notification, containsString("\"url\":null"));
     }
+
+    @Test
+    public void heartbeat_sessionLockedByOtherRequest_handledWithoutLock()
+            throws Exception {
+        VaadinServlet servlet = new VaadinServlet();
+        servlet.init(new MockServletConfig());
+        VaadinService service = servlet.getService();
+
+        MockVaadinSession session = new MockVaadinSession(service);
+        // Locked by this thread like by a long running request
+        session.lock();
+        try {
+            UI ui = new MockUI(session);
+            ui.doInit(EasyMock.createNiceMock(VaadinRequest.class), 0, null);
+            session.addUI(ui);
+            ui.setLastHeartbeatTimestamp(0);
+            session.setLastCleanupTimestamp(System.currentTimeMillis());
+
+            WrappedSession wrappedSession = EasyMock
+                    .createNiceMock(WrappedSession.class);
+            EasyMock.expect(wrappedSession
+                    .getAttribute(service.getSessionAttributeName()))
+                    .andReturn(session).anyTimes();
+            VaadinRequest request = EasyMock
+                    .createNiceMock(VaadinRequest.class);
+            EasyMock.expect(request.getPathInfo())
+                    .andReturn("/" + ApplicationConstants.HEARTBEAT_PATH + "/")
+                    .anyTimes();
+            EasyMock.expect(request.getParameter(UIConstants.UI_ID_PARAMETER))
+                    .andReturn("0").anyTimes();
+            EasyMock.expect(request.getWrappedSession(false))
+                    .andReturn(wrappedSession).anyTimes();
+            EasyMock.replay(wrappedSession, request);
+
+            Thread heartbeat = new Thread(() -> {
+                try {
+                    service.handleRequest(request,
+                            EasyMock.createNiceMock(VaadinResponse.class));
+                } catch (ServiceException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            heartbeat.start();
+            heartbeat.join(5000);
+
+            Assert.assertFalse("Heartbeat waited for the session lock",
+                    heartbeat.isAlive());
+            Assert.assertNotEquals(0, ui.getLastHeartbeatTimestamp());
+        } finally {
+            session.unlock();
+            UI.setCurrent(null);
+        }
+    }
+
+    @Test
+    public void heartbeat_withSessionSerializer_modifiedSessionStored()
+            throws Exception {
+        VaadinServlet servlet = new VaadinServlet();
+        servlet.init(new MockServletConfig());
+        VaadinService service = servlet.getService();
+        service.setSessionSerializer(new CompactSessionSerializer());
+
+        WrappedSession wrappedSession = EasyMock
+                .createNiceMock(WrappedSession.class);
+        MockVaadinSession session = new MockVaadinSession(service) {
+            @Override
+            public WrappedSession getSession() {
+                return wrappedSession;
+            }
+        };
+        session.lock();
+        try {
+            UI ui = new MockUI(session);
+            ui.doInit(EasyMock.createNiceMock(VaadinRequest.class), 0, null);
+            session.addUI(ui);
+            session.setLastCleanupTimestamp(System.currentTimeMillis());
+        } finally {
+            session.unlock();
+            UI.setCurrent(null);
+        }
+        session.markStored();
+
+        EasyMock.expect(
+                wrappedSession.getAttribute(service.getSessionAttributeName()))
+                .andReturn(session).anyTimes();
+        wrappedSession.setAttribute(
+                EasyMock.eq(service.getSessionAttributeName()),
+                EasyMock.anyObject());
+        EasyMock.expectLastCall().once();
+        VaadinRequest request = EasyMock.createNiceMock(VaadinRequest.class);
+        EasyMock.expect(request.getPathInfo())
+                .andReturn("/" + ApplicationConstants.HEARTBEAT_PATH + "/")
+                .anyTimes();
+        EasyMock.expect(request.getParameter(UIConstants.UI_ID_PARAMETER))
+                .andReturn("0").anyTimes();
+        EasyMock.expect(request.getWrappedSession(false))
+                .andReturn(wrappedSession).anyTimes();
+        EasyMock.replay(wrappedSession, request);
+
+        service.handleRequest(request,
+                EasyMock.createNiceMock(VaadinResponse.class));
+
+        EasyMock.verify(wrappedSession);
+        Assert.assertFalse(session.isModifiedSinceStored());
+    }
 }
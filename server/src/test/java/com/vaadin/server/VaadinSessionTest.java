@@ -23,6 +23,7 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -245,6 +246,26 @@ public class VaadinSessionTest implements Serializable {
                 1, vaadinSession.getCloseCount());
     }
 
+    @Test
+    public void getUIById_noLock_uiFound() throws Exception {
+        final AtomicReference<UI> found = new AtomicReference<UI>();
+        Thread thread = new Thread(
+                () -> found.set(session.getUIById(ui.getUIId())));
+        thread.start();
+        thread.join();
+
+        Assert.assertSame(ui, found.get());
+    }
+
+    @Test
+    public void cleanupSession_cleanupTimestampUpdated() {
+        session.setLastCleanupTimestamp(0);
+
+        mockService.cleanupSession(session);
+
+        Assert.assertTrue(session.getLastCleanupTimestamp() > 0);
+    }
+
     // Can't define as an anonymous class since it would have a reference to
     // VaadinSessionTest.this which isn't serializable
     private static class MockPageUI extends UI {
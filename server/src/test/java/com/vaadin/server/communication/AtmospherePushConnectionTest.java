@@ -19,16 +19,63 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.atmosphere.cpr.AtmosphereResource;
 import org.easymock.EasyMock;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.vaadin.server.MockServletConfig;
+import com.vaadin.server.MockVaadinSession;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinServlet;
+import com.vaadin.server.VaadinServletService;
+import com.vaadin.server.VaadinSession;
 import com.vaadin.server.communication.AtmospherePushConnection.State;
+import com.vaadin.shared.communication.PushMode;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.PushConfiguration;
 import com.vaadin.ui.UI;
+import com.vaadin.ui.VerticalLayout;
 
 public class AtmospherePushConnectionTest {
+
+    private static final long TIMEOUT = 5000;
+
+    /*
+     * Records the pushed messages instead of broadcasting them
+     */
+    private static class RecordingPushConnection
+            extends AtmospherePushConnection {
+        private final List<String> messages = new CopyOnWriteArrayList<String>();
+
+        public RecordingPushConnection(UI ui) {
+            super(ui);
+        }
+
+        @Override
+        void sendMessage(String message) {
+            messages.add(message);
+        }
+    }
+
+    private VaadinServletService service;
+    private VaadinSession session;
+    private UI ui;
+    private Label label1;
+    private Label label2;
+    private RecordingPushConnection connection;
+
+    @After
+    public void tearDown() {
+        if (service != null) {
+            service.destroy();
+        }
+    }
     @Test
     public void testSerialization() throws Exception {
 
@@ -50,4 +97,142 @@ public class AtmospherePushConnectionTest {
 
         Assert.assertEquals(State.DISCONNECTED, connection.getState());
     }
+
+    @Test
+    public void pushWithinMinInterval_deferredAndSentOnce() throws Exception {
+        setUpPushingUI();
+        getPushConfiguration().setMinPushInterval(200);
+
+        label1.setValue("first");
+        ui.push();
+        Assert.assertEquals(1, connection.messages.size());
+
+        label1.setValue("second");
+        ui.push();
+        label1.setValue("third");
+        ui.push();
+        Assert.assertEquals(1, connection.messages.size());
+        session.unlock();
+
+        waitForMessages(2);
+        // Give a possible extra push time to happen
+        Thread.sleep(400);
+        Assert.assertEquals(2, connection.messages.size());
+        String message = connection.messages.get(1);
+        Assert.assertTrue(message.contains("third"));
+        Assert.assertFalse(message.contains("second"));
+    }
+
+    @Test
+    public void maxPendingChangesReached_pushedRightAway() throws Exception {
+        setUpPushingUI();
+        getPushConfiguration().setMinPushInterval(10000);
+        getPushConfiguration().setMaxPendingChanges(2);
+
+        label1.setValue("first");
+        ui.push();
+        Assert.assertEquals(1, connection.messages.size());
+
+        label1.setValue("second");
+        ui.push();
+        Assert.assertEquals(1, connection.messages.size());
+
+        label2.setValue("second");
+        ui.push();
+        Assert.assertEquals(2, connection.messages.size());
+        session.unlock();
+    }
+
+    @Test
+    public void maxPushLatency_deferredPushSentEarly() throws Exception {
+        setUpPushingUI();
+        getPushConfiguration().setMinPushInterval(10000);
+        getPushConfiguration().setMaxPushLatency(200);
+
+        label1.setValue("first");
+        ui.push();
+        label1.setValue("second");
+        ui.push();
+        Assert.assertEquals(1, connection.messages.size());
+        session.unlock();
+
+        waitForMessages(2);
+        Assert.assertTrue(connection.messages.get(1).contains("second"));
+    }
+
+    @Test
+    public void disconnectWithDeferredPush_pushedAfterReconnect()
+            throws Exception {
+        setUpPushingUI();
+        getPushConfiguration().setMinPushInterval(200);
+
+        label1.setValue("first");
+        ui.push();
+        label1.setValue("second");
+        ui.push();
+        connection.disconnect();
+        session.unlock();
+
+        long end = System.currentTimeMillis() + TIMEOUT;
+        while (connection.getState() != State.PUSH_PENDING
+                && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(State.PUSH_PENDING, connection.getState());
+        Assert.assertEquals(1, connection.messages.size());
+
+        session.lock();
+        try {
+            connection.connect(
+                    EasyMock.createNiceMock(AtmosphereResource.class));
+        } finally {
+            session.unlock();
+        }
+        waitForMessages(2);
+        Assert.assertTrue(connection.messages.get(1).contains("second"));
+    }
+
+    /*
+     * Creates a UI with push enabled and a connected push connection. The
+     * session is left locked.
+     */
+    private void setUpPushingUI() throws Exception {
+        VaadinServlet servlet = new VaadinServlet();
+        servlet.init(new MockServletConfig());
+        service = new VaadinServletService(servlet,
+                new MockDeploymentConfiguration());
+        session = new MockVaadinSession(service);
+        label1 = new Label();
+        label2 = new Label();
+        ui = new UI() {
+            @Override
+            protected void init(VaadinRequest request) {
+                setContent(new VerticalLayout(label1, label2));
+            }
+        };
+
+        session.lock();
+        ui.setSession(session);
+        ui.doInit(EasyMock.createNiceMock(VaadinRequest.class),
+                session.getNextUIid(), null);
+        session.addUI(ui);
+
+        getPushConfiguration().setPushMode(PushMode.MANUAL);
+        connection = new RecordingPushConnection(ui);
+        ui.setPushConnection(connection);
+        connection.connect(EasyMock.createNiceMock(AtmosphereResource.class));
+    }
+
+    private PushConfiguration getPushConfiguration() {
+        return ui.getPushConfiguration();
+    }
+
+    private void waitForMessages(int count) throws InterruptedException {
+        long end = System.currentTimeMillis() + TIMEOUT;
+        while (connection.messages.size() < count
+                && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(count, connection.messages.size());
+    }
 }
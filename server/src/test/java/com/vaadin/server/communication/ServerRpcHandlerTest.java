@@ -0,0 +1,104 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server.communication;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.server.ServerRpcMethodInvocation;
+import com.vaadin.shared.communication.LegacyChangeVariablesInvocation;
+import com.vaadin.shared.communication.MethodInvocation;
+import com.vaadin.shared.data.DataRequestRpc;
+
+public class ServerRpcHandlerTest {
+
+    @Test
+    public void removeSupersededInvocations_repeatedRequestRows_lastKept() {
+        MethodInvocation first = requestRows("1", 0);
+        MethodInvocation second = requestRows("1", 50);
+        MethodInvocation third = requestRows("1", 100);
+
+        assertRemaining(Arrays.asList(first, second, third), third);
+    }
+
+    @Test
+    public void removeSupersededInvocations_differentConnectors_allKept() {
+        MethodInvocation first = requestRows("1", 0);
+        MethodInvocation second = requestRows("2", 0);
+        MethodInvocation third = requestRows("3", 0);
+
+        assertRemaining(Arrays.asList(first, second, third), first, second,
+                third);
+    }
+
+    @Test
+    public void removeSupersededInvocations_otherMethods_keptInPlace() {
+        MethodInvocation drop1 = dropRows("1");
+        MethodInvocation request1 = requestRows("1", 0);
+        MethodInvocation drop2 = dropRows("1");
+        MethodInvocation request2 = requestRows("1", 50);
+        MethodInvocation legacy = new LegacyChangeVariablesInvocation("1",
+                "variable", "value");
+        MethodInvocation drop3 = dropRows("1");
+
+        assertRemaining(
+                Arrays.asList(drop1, request1, drop2, request2, legacy, drop3),
+                drop1, drop2, request2, legacy, drop3);
+    }
+
+    @Test
+    public void removeSupersededInvocations_interleavedConnectors_orderPreserved() {
+        MethodInvocation a1 = requestRows("a", 0);
+        MethodInvocation b1 = requestRows("b", 0);
+        MethodInvocation dropA = dropRows("a");
+        MethodInvocation a2 = requestRows("a", 50);
+        MethodInvocation dropB = dropRows("b");
+        MethodInvocation b2 = requestRows("b", 50);
+        MethodInvocation a3 = requestRows("a", 100);
+
+        assertRemaining(Arrays.asList(a1, b1, dropA, a2, dropB, b2, a3), dropA,
+                dropB, b2, a3);
+    }
+
+    private static void assertRemaining(List<MethodInvocation> invocations,
+            MethodInvocation... expected) {
+        List<MethodInvocation> filtered = new ArrayList<>(invocations);
+        ServerRpcHandler.removeSupersededInvocations(filtered);
+        Assert.assertEquals(expected.length, filtered.size());
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertSame(expected[i], filtered.get(i));
+        }
+    }
+
+    private static MethodInvocation requestRows(String connectorId,
+            int firstRowIndex) {
+        ServerRpcMethodInvocation invocation = new ServerRpcMethodInvocation(
+                connectorId, DataRequestRpc.class, "requestRows", 4);
+        invocation.setParameters(new Object[] { firstRowIndex, 50, 0, 0 });
+        return invocation;
+    }
+
+    private static MethodInvocation dropRows(String connectorId) {
+        ServerRpcMethodInvocation invocation = new ServerRpcMethodInvocation(
+                connectorId, DataRequestRpc.class, "dropRows", 1);
+        invocation.setParameters(new Object[] { null });
+        return invocation;
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server.communication;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.atmosphere.cpr.AtmosphereResource;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.event.Registration;
+import com.vaadin.server.MockServletConfig;
+import com.vaadin.server.MockVaadinSession;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinServlet;
+import com.vaadin.server.VaadinServletService;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.shared.communication.ClientRpc;
+import com.vaadin.shared.communication.PushMode;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+import com.vaadin.tests.util.MockUI;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.UI;
+
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+
+public class UIBroadcasterTest {
+
+    public static class Message {
+        private static int getTextCalls = 0;
+
+        private String text;
+
+        public String getText() {
+            getTextCalls++;
+            return text;
+        }
+
+        public void setText(String text) {
+            this.text = text;
+        }
+    }
+
+    public interface MessageClientRpc extends ClientRpc {
+        public void messageReceived(Message message);
+    }
+
+    /*
+     * Records the pushed messages instead of broadcasting them
+     */
+    private static class RecordingPushConnection
+            extends AtmospherePushConnection {
+        private final List<String> messages = new ArrayList<String>();
+
+        public RecordingPushConnection(UI ui) {
+            super(ui);
+        }
+
+        @Override
+        void sendMessage(String message) {
+            messages.add(message);
+        }
+
+        @Override
+        public boolean sendSharedMessage(String message) {
+            if (!isConnected()) {
+                return false;
+            }
+            messages.add(message);
+            return true;
+        }
+    }
+
+    private VaadinServlet servlet;
+    private VaadinServletService service;
+    private VaadinSession session;
+    private UI ui1;
+    private UI ui2;
+    private UIBroadcaster<Message> broadcaster = new UIBroadcaster<Message>(
+            Message.class);
+
+    @Before
+    public void setUp() throws Exception {
+        servlet = new VaadinServlet();
+        servlet.init(new MockServletConfig());
+
+        service = new VaadinServletService(servlet,
+                new MockDeploymentConfiguration());
+        session = new MockVaadinSession(service);
+        session.lock();
+        ui1 = new MockUI(session);
+        ui2 = new MockUI(session);
+        session.unlock();
+    }
+
+    @After
+    public void tearDown() {
+        UI.setCurrent(null);
+        VaadinSession.setCurrent(null);
+        service.destroy();
+    }
+
+    @Test
+    public void broadcast_sharedEncodedMessageDelivered() {
+        List<JsonValue> received1 = new ArrayList<JsonValue>();
+        List<JsonValue> received2 = new ArrayList<JsonValue>();
+        broadcaster.subscribe(ui1, received1::add);
+        broadcaster.subscribe(ui2, received2::add);
+
+        Message message = new Message();
+        message.setText("hello");
+        broadcaster.broadcast(message);
+
+        Assert.assertEquals(1, received1.size());
+        Assert.assertEquals(1, received2.size());
+        Assert.assertSame(received1.get(0), received2.get(0));
+        Assert.assertEquals("hello",
+                ((JsonObject) received1.get(0)).getString("text"));
+    }
+
+    @Test
+    public void unsubscribe_noMessageDelivered() {
+        List<JsonValue> received = new ArrayList<JsonValue>();
+        Registration registration = broadcaster.subscribe(ui1,
+                received::add);
+        Assert.assertEquals(1, broadcaster.getSubscriptionCount());
+
+        registration.remove();
+        broadcaster.broadcast(new Message());
+
+        Assert.assertEquals(0, broadcaster.getSubscriptionCount());
+        Assert.assertTrue(received.isEmpty());
+    }
+
+    @Test
+    public void broadcastToConnectors_serializedOnceAndSentWithoutLocking() {
+        Label label1 = new Label();
+        Label label2 = new Label();
+        session.lock();
+        RecordingPushConnection connection1 = createPushingUI(label1);
+        RecordingPushConnection connection2 = createPushingUI(label2);
+        broadcaster.subscribe(label1, MessageClientRpc.class,
+                "messageReceived");
+        broadcaster.subscribe(label2, MessageClientRpc.class,
+                "messageReceived");
+        // Send the labels to the client
+        label1.getUI().push();
+        label2.getUI().push();
+        session.unlock();
+        connection1.messages.clear();
+        connection2.messages.clear();
+
+        // Sent with the session locked as the connectors are not known to
+        // be on the client
+        broadcaster.broadcast(createMessage("first"));
+        Assert.assertEquals(1, connection1.messages.size());
+        Assert.assertEquals(1, connection2.messages.size());
+
+        // Sent right away even though the session is locked by this thread
+        session.lock();
+        try {
+            Message.getTextCalls = 0;
+            broadcaster.broadcast(createMessage("second"));
+            Assert.assertEquals(1, Message.getTextCalls);
+            Assert.assertEquals(2, connection1.messages.size());
+            Assert.assertEquals(2, connection2.messages.size());
+        } finally {
+            session.unlock();
+        }
+
+        Assert.assertEquals(getExpectedMessage(label1, "second"),
+                connection1.messages.get(1));
+        Assert.assertEquals(getExpectedMessage(label2, "second"),
+                connection2.messages.get(1));
+    }
+
+    @Test
+    public void broadcastToConnector_notOnClient_sentAfterPush() {
+        Label label = new Label();
+        session.lock();
+        RecordingPushConnection connection = createPushingUI(label);
+        broadcaster.subscribe(label, MessageClientRpc.class,
+                "messageReceived");
+        session.unlock();
+
+        broadcaster.broadcast(createMessage("first"));
+        broadcaster.broadcast(createMessage("second"));
+        Assert.assertTrue(connection.messages.isEmpty());
+
+        session.lock();
+        try {
+            label.getUI().push();
+        } finally {
+            session.unlock();
+        }
+
+        Assert.assertEquals(3, connection.messages.size());
+        Assert.assertTrue(connection.messages.get(0).contains("\"state\""));
+        Assert.assertTrue(connection.messages.get(1).contains("first"));
+        Assert.assertTrue(connection.messages.get(2).contains("second"));
+    }
+
+    @Test
+    public void broadcastToConnector_detached_unsubscribed() {
+        Label label = new Label();
+        session.lock();
+        try {
+            createPushingUI(label);
+            broadcaster.subscribe(label, MessageClientRpc.class,
+                    "messageReceived");
+            Assert.assertEquals(1, broadcaster.getSubscriptionCount());
+
+            label.getUI().setContent(null);
+            Assert.assertEquals(0, broadcaster.getSubscriptionCount());
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void subscribeConnector_unknownMethod_throws() {
+        Label label = new Label();
+        session.lock();
+        try {
+            createPushingUI(label);
+            broadcaster.subscribe(label, MessageClientRpc.class, "unknown");
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void subscribeConnector_pushDisabled_throws() {
+        session.lock();
+        try {
+            broadcaster.subscribe(ui1, MessageClientRpc.class,
+                    "messageReceived");
+        } finally {
+            session.unlock();
+        }
+    }
+
+    private static String getExpectedMessage(Label label, String text) {
+        return "for(;;);[{\"syncId\":-1,\"changes\":[],"
+                + "\"meta\":{\"async\":true},\"rpc\":[[\""
+                + label.getConnectorId() + "\",\""
+                + MessageClientRpc.class.getName()
+                + "\",\"messageReceived\",[{\"text\":\"" + text
+                + "\"}]]]}]";
+    }
+
+    private static Message createMessage(String text) {
+        Message message = new Message();
+        message.setText(text);
+        return message;
+    }
+
+    /*
+     * Creates a UI containing the given label with push enabled and a
+     * connected push connection. The session must be locked.
+     */
+    private RecordingPushConnection createPushingUI(Label label) {
+        UI ui = new UI() {
+            @Override
+            protected void init(VaadinRequest request) {
+                setContent(label);
+            }
+        };
+        ui.setSession(session);
+        ui.doInit(EasyMock.createNiceMock(VaadinRequest.class),
+                session.getNextUIid(), null);
+        session.addUI(ui);
+
+        ui.getPushConfiguration().setPushMode(PushMode.MANUAL);
+        RecordingPushConnection connection = new RecordingPushConnection(ui);
+        ui.setPushConnection(connection);
+        connection.connect(EasyMock.createNiceMock(AtmosphereResource.class));
+        return connection;
+    }
+}
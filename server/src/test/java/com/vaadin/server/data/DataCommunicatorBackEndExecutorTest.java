@@ -0,0 +1,151 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.server.ClientMethodInvocation;
+import com.vaadin.server.MockServletConfig;
+import com.vaadin.server.MockVaadinSession;
+import com.vaadin.server.VaadinServlet;
+import com.vaadin.server.VaadinServletService;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.shared.data.sort.SortDirection;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+import com.vaadin.tests.util.MockUI;
+import com.vaadin.ui.UI;
+
+import elemental.json.JsonObject;
+
+public class DataCommunicatorBackEndExecutorTest {
+
+    private final List<String> data = Arrays.asList("a", "b", "c", "d");
+    private final List<Query> backEndQueries = new ArrayList<>();
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final List<Boolean> lockedWhenGenerated = new ArrayList<>();
+
+    private VaadinServletService service;
+    private VaadinSession session;
+    private UI ui;
+    private DataCommunicator<String> communicator;
+
+    @Before
+    public void setUp() throws Exception {
+        VaadinServlet servlet = new VaadinServlet();
+        servlet.init(new MockServletConfig());
+        service = new VaadinServletService(servlet,
+                new MockDeploymentConfiguration());
+        session = new MockVaadinSession(service);
+        ui = new MockUI(session);
+
+        communicator = new DataCommunicator<String>() {
+            @Override
+            public UI getUI() {
+                return ui;
+            }
+        };
+        communicator.setDataSource(new BackEndDataSource<>(query -> {
+            backEndQueries.add(query);
+            return data.stream().skip(query.getOffset())
+                    .limit(query.getLimit());
+        }, query -> data.size()));
+        communicator.addDataGenerator(new TypedDataGenerator<String>() {
+            @Override
+            public void generateData(String item, JsonObject jsonObject) {
+                lockedWhenGenerated.add(session.hasLock());
+            }
+
+            @Override
+            public void destroyData(String item) {
+            }
+        });
+        communicator.setBackEndExecutor(tasks::add);
+
+        session.lock();
+    }
+
+    @After
+    public void tearDown() {
+        if (session.hasLock()) {
+            session.unlock();
+        }
+        UI.setCurrent(null);
+        VaadinSession.setCurrent(null);
+        service.destroy();
+    }
+
+    @Test
+    public void rowsFetchedWithExecutorAndPushedWithSessionLocked() {
+        communicator.beforeClientResponse(true);
+        Assert.assertTrue("Back end should not be queried directly",
+                backEndQueries.isEmpty());
+        Assert.assertEquals(1, tasks.size());
+        Assert.assertFalse(hasSetData(communicator.retrievePendingRpcCalls()));
+
+        tasks.get(0).run();
+        Assert.assertEquals(1, backEndQueries.size());
+        // The access task runs only when the lock is released
+        Assert.assertTrue(lockedWhenGenerated.isEmpty());
+
+        session.unlock();
+        Assert.assertEquals(Arrays.asList(true, true, true, true),
+                lockedWhenGenerated);
+        Assert.assertTrue(hasSetData(communicator.retrievePendingRpcCalls()));
+    }
+
+    @Test
+    public void supersededFetchCancelled() {
+        communicator.beforeClientResponse(true);
+        communicator.createRpc().requestRows(1, 2, 0, 0);
+        communicator.beforeClientResponse(false);
+        Assert.assertEquals(2, tasks.size());
+
+        tasks.forEach(Runnable::run);
+        Assert.assertEquals("Only the latest fetch should be run", 1,
+                backEndQueries.size());
+        Assert.assertEquals(1, backEndQueries.get(0).getOffset());
+
+        session.unlock();
+        Assert.assertEquals(2, lockedWhenGenerated.size());
+    }
+
+    @Test
+    public void sortingChangedDuringFetch_queryNotModified() {
+        communicator.setBackEndSorting(Collections.singletonList(
+                new SortOrder<>("value", SortDirection.ASCENDING)));
+        communicator.beforeClientResponse(true);
+
+        communicator.setBackEndSorting(Collections.singletonList(
+                new SortOrder<>("value", SortDirection.DESCENDING)));
+        tasks.get(0).run();
+
+        Assert.assertEquals(SortDirection.ASCENDING, backEndQueries.get(0)
+                .getSortOrders().get(0).getDirection());
+    }
+
+    private static boolean hasSetData(List<ClientMethodInvocation> calls) {
+        return calls.stream()
+                .anyMatch(call -> "setData".equals(call.getMethodName()));
+    }
+}
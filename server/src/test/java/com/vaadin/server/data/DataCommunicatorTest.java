@@ -0,0 +1,277 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.server.ClientMethodInvocation;
+import com.vaadin.shared.data.DataCommunicatorConstants;
+
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+public class DataCommunicatorTest {
+
+    private static class CountingDataSource implements DataSource<String> {
+
+        private final List<String> data;
+        private int applyCount = 0;
+
+        public CountingDataSource(String... data) {
+            this.data = new ArrayList<>(Arrays.asList(data));
+        }
+
+        @Override
+        public Stream<String> apply(Query query) {
+            ++applyCount;
+            return data.stream();
+        }
+
+        @Override
+        public boolean isInMemory() {
+            return true;
+        }
+
+        @Override
+        public int size(Query t) {
+            return data.size();
+        }
+    }
+
+    private DataCommunicator<String> communicator;
+    private CountingDataSource dataSource;
+
+    @Before
+    public void setUp() {
+        communicator = new DataCommunicator<>();
+        dataSource = new CountingDataSource("c", "a", "d", "b");
+        communicator.setDataSource(dataSource);
+    }
+
+    @Test
+    public void testInMemoryDataReusedForRowRequests() {
+        communicator.beforeClientResponse(true);
+        Assert.assertEquals(1, dataSource.applyCount);
+
+        communicator.createRpc().requestRows(1, 2, 0, 0);
+        communicator.beforeClientResponse(false);
+        Assert.assertEquals("Data source should not be queried again", 1,
+                dataSource.applyCount);
+    }
+
+    @Test
+    public void testInMemoryDataRebuiltOnSortingChange() {
+        communicator.beforeClientResponse(true);
+        communicator.retrievePendingRpcCalls();
+
+        communicator.setInMemorySorting(Comparator.naturalOrder());
+        communicator.createRpc().requestRows(1, 2, 0, 0);
+        communicator.beforeClientResponse(false);
+        Assert.assertEquals(2, dataSource.applyCount);
+
+        Assert.assertEquals(Arrays.asList("b", "c"), getLastPushedData());
+    }
+
+    @Test
+    public void testParallelSortMatchesSequentialSort() {
+        communicator.setParallelSortThreshold(0);
+        communicator.setInMemorySorting(Comparator.reverseOrder());
+        communicator.beforeClientResponse(true);
+
+        Assert.assertEquals(Arrays.asList("d", "c", "b", "a"),
+                communicator.getInMemoryData());
+    }
+
+    @Test
+    public void testInMemoryDataRebuiltOnParallelSortThresholdChange() {
+        communicator.setInMemorySorting(Comparator.naturalOrder());
+        List<String> sequential = communicator.getInMemoryData();
+
+        communicator.setParallelSortThreshold(0);
+        List<String> parallel = communicator.getInMemoryData();
+        Assert.assertNotSame(sequential, parallel);
+        Assert.assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void testDataObjectCaching() {
+        List<String> generated = new ArrayList<>();
+        communicator.addDataGenerator(new TypedDataGenerator<String>() {
+            @Override
+            public void generateData(String data, JsonObject jsonObject) {
+                generated.add(data);
+            }
+
+            @Override
+            public void destroyData(String data) {
+            }
+        });
+        communicator.setDataObjectCaching(true);
+
+        communicator.beforeClientResponse(true);
+        Assert.assertEquals(Arrays.asList("c", "a", "d", "b"), generated);
+
+        communicator.createRpc().requestRows(0, 3, 0, 0);
+        communicator.beforeClientResponse(false);
+        Assert.assertEquals("Cached rows should not be generated again", 4,
+                generated.size());
+
+        communicator.refresh("a");
+        communicator.beforeClientResponse(false);
+        Assert.assertEquals(Arrays.asList("c", "a", "d", "b", "a"),
+                generated);
+    }
+
+    @Test
+    public void testRequestBeyondDataSize() {
+        communicator.beforeClientResponse(true);
+        communicator.retrievePendingRpcCalls();
+
+        communicator.createRpc().requestRows(10, 5, 0, 0);
+        communicator.beforeClientResponse(false);
+        Assert.assertTrue(getLastPushedData().isEmpty());
+    }
+
+    @Test
+    public void testIncrementalUpdateSendsChangedRows() {
+        communicator.setIncrementalUpdates(true);
+        List<String> client = new ArrayList<>();
+        communicator.beforeClientResponse(true);
+        communicator.createRpc().requestRows(0, 4, 0, 0);
+        communicator.beforeClientResponse(false);
+        applyToClient(client);
+        Assert.assertEquals(dataSource.data, client);
+
+        dataSource.data.remove("a");
+        dataSource.data.add(1, "x");
+        dataSource.data.add("e");
+        communicator.refreshAll();
+        communicator.beforeClientResponse(false);
+        List<String> methods = applyToClient(client);
+
+        Assert.assertFalse("Data should not be reset",
+                methods.contains("reset"));
+        Assert.assertEquals(Arrays.asList("c", "x", "d", "b", null), client);
+    }
+
+    @Test
+    public void testIncrementalUpdateRemovesRows() {
+        communicator.setIncrementalUpdates(true);
+        List<String> client = new ArrayList<>();
+        communicator.beforeClientResponse(true);
+        communicator.createRpc().requestRows(0, 4, 0, 0);
+        communicator.beforeClientResponse(false);
+        applyToClient(client);
+
+        dataSource.data.remove("c");
+        dataSource.data.remove("b");
+        communicator.refreshAll();
+        communicator.beforeClientResponse(false);
+        applyToClient(client);
+
+        Assert.assertEquals(dataSource.data, client);
+    }
+
+    @Test
+    public void testIncrementalUpdateResetsMovedRows() {
+        communicator.setIncrementalUpdates(true);
+        List<String> client = new ArrayList<>();
+        communicator.beforeClientResponse(true);
+        communicator.createRpc().requestRows(0, 4, 0, 0);
+        communicator.beforeClientResponse(false);
+        applyToClient(client);
+
+        // The client-side would drop a row that is removed and inserted
+        dataSource.data.remove("b");
+        dataSource.data.add(0, "b");
+        communicator.refreshAll();
+        communicator.beforeClientResponse(false);
+        List<String> methods = applyToClient(client);
+
+        Assert.assertTrue(methods.contains("reset"));
+        Assert.assertFalse(methods.contains("removeRows"));
+
+        communicator.createRpc().requestRows(0, 4, 0, 0);
+        communicator.beforeClientResponse(false);
+        applyToClient(client);
+        Assert.assertEquals(dataSource.data, client);
+    }
+
+    /**
+     * Applies the pending client RPC calls to a list of row keys that
+     * represents the client-side data source.
+     */
+    private List<String> applyToClient(List<String> client) {
+        List<String> methods = new ArrayList<>();
+        for (ClientMethodInvocation invocation : communicator
+                .retrievePendingRpcCalls()) {
+            Object[] params = invocation.getParameters();
+            methods.add(invocation.getMethodName());
+            switch (invocation.getMethodName()) {
+            case "reset":
+                client.clear();
+                client.addAll(Collections.nCopies((Integer) params[0], null));
+                break;
+            case "setData":
+                JsonArray data = (JsonArray) params[1];
+                for (int i = 0; i < data.length(); ++i) {
+                    client.set((Integer) params[0] + i,
+                            communicator.getKeyMapper().get(data.getObject(i)
+                                    .getString(DataCommunicatorConstants.KEY)));
+                }
+                break;
+            case "insertRows":
+                client.addAll((Integer) params[0],
+                        Collections.nCopies((Integer) params[1], null));
+                break;
+            case "removeRows":
+                client.subList((Integer) params[0],
+                        (Integer) params[0] + (Integer) params[1]).clear();
+                break;
+            default:
+                break;
+            }
+        }
+        return methods;
+    }
+
+    private List<String> getLastPushedData() {
+        JsonArray dataArray = null;
+        for (ClientMethodInvocation invocation : communicator
+                .retrievePendingRpcCalls()) {
+            if ("setData".equals(invocation.getMethodName())) {
+                dataArray = (JsonArray) invocation.getParameters()[1];
+            }
+        }
+        Assert.assertNotNull("No data was pushed", dataArray);
+
+        List<String> pushed = new ArrayList<>();
+        for (int i = 0; i < dataArray.length(); ++i) {
+            pushed.add(communicator.getKeyMapper().get(dataArray.getObject(i)
+                    .getString(DataCommunicatorConstants.KEY)));
+        }
+        return pushed;
+    }
+}
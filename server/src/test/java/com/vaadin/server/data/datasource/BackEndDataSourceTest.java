@@ -0,0 +1,184 @@
+package com.vaadin.server.data.datasource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.server.data.BackEndDataSource;
+import com.vaadin.server.data.Query;
+import com.vaadin.server.data.SortOrder;
+import com.vaadin.shared.data.sort.SortDirection;
+
+public class BackEndDataSourceTest {
+
+    private List<StrBean> data;
+    private List<Query> backEndQueries;
+    private int sizeRequests;
+    private BackEndDataSource<StrBean> dataSource;
+
+    @Before
+    public void setUp() {
+        data = StrBean.generateRandomBeans(100);
+        backEndQueries = new ArrayList<>();
+        dataSource = new BackEndDataSource<>(query -> {
+            backEndQueries.add(query);
+            return data.stream().skip(query.getOffset())
+                    .limit(query.getLimit());
+        }, query -> {
+            ++sizeRequests;
+            return data.size();
+        });
+    }
+
+    @Test
+    public void testReadAheadFetchesAlignedBlocks() {
+        dataSource.setReadAhead(40, 2);
+
+        Assert.assertEquals(data.subList(10, 30), fetch(10, 20));
+        Assert.assertEquals(1, backEndQueries.size());
+        Assert.assertEquals(0, backEndQueries.get(0).getOffset());
+        Assert.assertEquals(40, backEndQueries.get(0).getLimit());
+
+        Assert.assertEquals(data.subList(30, 50), fetch(30, 20));
+        Assert.assertEquals(2, backEndQueries.size());
+        Assert.assertEquals(40, backEndQueries.get(1).getOffset());
+
+        // Both blocks are now cached
+        Assert.assertEquals(data.subList(0, 80), fetch(0, 80));
+        Assert.assertEquals(2, backEndQueries.size());
+    }
+
+    @Test
+    public void testReadAheadEndOfData() {
+        dataSource.setReadAhead(40, 2);
+
+        Assert.assertEquals(data.subList(90, 100), fetch(90, 40));
+        Assert.assertTrue(fetch(120, 10).isEmpty());
+    }
+
+    @Test
+    public void testReadAheadLeastRecentlyUsedBlockEvicted() {
+        dataSource.setReadAhead(10, 2);
+
+        fetch(0, 10);
+        fetch(10, 10);
+        fetch(0, 10);
+        fetch(20, 10);
+        Assert.assertEquals(3, backEndQueries.size());
+
+        // Block at 10 was evicted
+        fetch(10, 10);
+        Assert.assertEquals(4, backEndQueries.size());
+        fetch(0, 10);
+        Assert.assertEquals(5, backEndQueries.size());
+    }
+
+    @Test
+    public void testReadAheadCachedPerSortOrder() {
+        dataSource.setReadAhead(40, 4);
+
+        fetch(0, 10);
+        dataSource.apply(new Query(0, 10,
+                Collections.singletonList(
+                        new SortOrder<>("value", SortDirection.ASCENDING)),
+                Collections.emptySet())).count();
+        Assert.assertEquals(2, backEndQueries.size());
+
+        dataSource.clearCache();
+        fetch(0, 10);
+        Assert.assertEquals(3, backEndQueries.size());
+    }
+
+    @Test
+    public void testReadAheadSortOrderModifiedAfterQuery() {
+        dataSource.setReadAhead(40, 4);
+
+        List<SortOrder<String>> sortOrders = new ArrayList<>();
+        sortOrders.add(new SortOrder<>("value", SortDirection.ASCENDING));
+        dataSource.apply(new Query(0, 10, sortOrders, Collections.emptySet()))
+                .count();
+        Assert.assertEquals(1, backEndQueries.size());
+
+        // Modifying the list must not change the already cached key
+        sortOrders.clear();
+        sortOrders.add(new SortOrder<>("value", SortDirection.DESCENDING));
+        dataSource.apply(new Query(0, 10, sortOrders, Collections.emptySet()))
+                .count();
+        Assert.assertEquals(2, backEndQueries.size());
+        Assert.assertEquals(SortDirection.DESCENDING, backEndQueries.get(1)
+                .getSortOrders().get(0).getDirection());
+
+        sortOrders.set(0, new SortOrder<>("value", SortDirection.ASCENDING));
+        dataSource.apply(new Query(0, 10, sortOrders, Collections.emptySet()))
+                .count();
+        Assert.assertEquals(2, backEndQueries.size());
+    }
+
+    @Test
+    public void testSizeNotCachedByDefault() {
+        dataSource.size(new Query());
+        dataSource.size(new Query());
+        Assert.assertEquals(2, sizeRequests);
+        Assert.assertFalse(dataSource.getCachedSize(new Query()).isPresent());
+    }
+
+    @Test
+    public void testSizeCachedPerFilters() {
+        dataSource.setSizeValidMilliSeconds(60000);
+
+        Assert.assertEquals(100, dataSource.size(new Query()));
+        Assert.assertEquals(100, dataSource.size(new Query()));
+        Assert.assertEquals(1, sizeRequests);
+        Assert.assertTrue(dataSource.isCachedSizeValid(new Query()));
+
+        dataSource.size(new Query(Collections.singleton("filter")));
+        Assert.assertEquals(2, sizeRequests);
+
+        dataSource.clearCache();
+        dataSource.size(new Query());
+        Assert.assertEquals(3, sizeRequests);
+    }
+
+    @Test
+    public void testSizeFiltersModifiedAfterQuery() {
+        dataSource.setSizeValidMilliSeconds(60000);
+
+        Set<Object> filters = new HashSet<>();
+        filters.add("filter");
+        dataSource.size(new Query(filters));
+        Assert.assertEquals(1, sizeRequests);
+
+        filters.clear();
+        dataSource.size(new Query(filters));
+        Assert.assertEquals(2, sizeRequests);
+        Assert.assertTrue(dataSource
+                .isCachedSizeValid(new Query(Collections.singleton("filter"))));
+    }
+
+    @Test
+    public void testExpiredSizeStillKnown() throws InterruptedException {
+        dataSource.setSizeValidMilliSeconds(1);
+        dataSource.size(new Query());
+        Thread.sleep(10);
+
+        Assert.assertFalse(dataSource.isCachedSizeValid(new Query()));
+        Assert.assertEquals(100,
+                dataSource.getCachedSize(new Query()).getAsInt());
+
+        dataSource.size(new Query());
+        Assert.assertEquals(2, sizeRequests);
+    }
+
+    private List<StrBean> fetch(int offset, int limit) {
+        return dataSource.apply(new Query(offset, limit,
+                Collections.emptyList(), Collections.emptySet()))
+                .collect(Collectors.toList());
+    }
+}
@@ -76,6 +76,7 @@ public class ClassesSerializableTest {
             "com\\.vaadin\\.server\\.communication\\.AtmospherePushConnection.*", //
             "com\\.vaadin\\.util\\.ConnectorHelper", //
             "com\\.vaadin\\.server\\.VaadinSession\\$FutureAccess", //
+            "com\\.vaadin\\.server\\.CompactSessionSerializer\\$.*", //
             "com\\.vaadin\\.external\\..*", //
             "com\\.vaadin\\.util\\.WeakValueMap.*", //
             "com\\.vaadin\\.themes\\.valoutil\\.BodyStyleName", //
@@ -0,0 +1,203 @@
+package com.vaadin.tests.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.vaadin.server.data.CompactKeyMapper;
+
+public class CompactKeyMapperTest {
+
+    private static class Item implements Serializable {
+        // Uses the identity based hashCode
+    }
+
+    @Test
+    public void testAdd() {
+        CompactKeyMapper<Object> mapper = new CompactKeyMapper<>();
+        Object o1 = new Object();
+        Object o2 = new Object();
+
+        String key1 = mapper.key(o1);
+        String key2 = mapper.key(o2);
+
+        assertSame(o1, mapper.get(key1));
+        assertSame(o2, mapper.get(key2));
+        assertNotEquals(key1, key2);
+
+        // Key should not change if there already is a mapping
+        assertEquals(key1, mapper.key(o1));
+
+        // Remove -> add should return a new key
+        mapper.remove(o1);
+        assertNull(mapper.get(key1));
+        assertNotEquals(key1, mapper.key(o1));
+    }
+
+    @Test
+    public void testManyObjects() {
+        CompactKeyMapper<Integer> mapper = new CompactKeyMapper<>();
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 10000; ++i) {
+            keys.add(mapper.key(i));
+        }
+        assertEquals(10000, new HashSet<>(keys).size());
+
+        // Remove every other object
+        for (int i = 0; i < 10000; i += 2) {
+            mapper.remove(i);
+        }
+        for (int i = 0; i < 10000; ++i) {
+            if (i % 2 == 0) {
+                assertNull(mapper.get(keys.get(i)));
+            } else {
+                assertEquals(Integer.valueOf(i), mapper.get(keys.get(i)));
+                assertEquals(keys.get(i), mapper.key(i));
+            }
+        }
+    }
+
+    @Test
+    public void testRemoveAll() {
+        CompactKeyMapper<String> mapper = new CompactKeyMapper<>();
+        String key = mapper.key("foo");
+        mapper.removeAll();
+
+        assertNull(mapper.get(key));
+        // Dropped keys are not reused
+        assertNotEquals(key, mapper.key("foo"));
+    }
+
+    @Test
+    public void testIdentifierGetter() {
+        CompactKeyMapper<String> mapper = new CompactKeyMapper<>(
+                String::length);
+        String key = mapper.key("foo");
+
+        assertEquals(key, mapper.key("bar"));
+        assertEquals("foo", mapper.get(key));
+    }
+
+    @Test
+    public void testIdentity() {
+        CompactKeyMapper<Set<String>> mapper = CompactKeyMapper.identity();
+        Set<String> set1 = new HashSet<>();
+        Set<String> set2 = new HashSet<>();
+
+        assertNotEquals(mapper.key(set1), mapper.key(set2));
+    }
+
+    @Test
+    public void testInvalidKeys() {
+        CompactKeyMapper<String> mapper = new CompactKeyMapper<>();
+        mapper.key("foo");
+
+        assertEquals("null", mapper.key(null));
+        assertNull(mapper.get("null"));
+        assertNull(mapper.get("not a key"));
+        assertNull(mapper.get(""));
+        assertNull(mapper.get(null));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        CompactKeyMapper<Item> mapper = new CompactKeyMapper<>();
+        List<Item> items = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            Item item = new Item();
+            items.add(item);
+            keys.add(mapper.key(item));
+        }
+
+        Object[] deserialized = serializeAndDeserialize(
+                new Object[] { mapper, items });
+        @SuppressWarnings("unchecked")
+        CompactKeyMapper<Item> mapper2 = (CompactKeyMapper<Item>) deserialized[0];
+        @SuppressWarnings("unchecked")
+        List<Item> items2 = (List<Item>) deserialized[1];
+
+        for (int i = 0; i < items2.size(); ++i) {
+            assertSame(items2.get(i), mapper2.get(keys.get(i)));
+            // Hash codes have changed, but the existing key must be found
+            assertEquals(keys.get(i), mapper2.key(items2.get(i)));
+        }
+        assertFalse(keys.contains(mapper2.key(new Item())));
+    }
+
+    @Test
+    public void testIdentitySerialization() throws Exception {
+        CompactKeyMapper<Set<String>> mapper = CompactKeyMapper.identity();
+        Set<String> set = new HashSet<>();
+        String key = mapper.key(set);
+
+        Object[] deserialized = serializeAndDeserialize(
+                new Object[] { mapper, set });
+        @SuppressWarnings("unchecked")
+        CompactKeyMapper<Set<String>> mapper2 = (CompactKeyMapper<Set<String>>) deserialized[0];
+        @SuppressWarnings("unchecked")
+        Set<String> set2 = (Set<String>) deserialized[1];
+
+        assertEquals(key, mapper2.key(set2));
+        mapper2.remove(set2);
+        assertNull(mapper2.get(key));
+    }
+
+    @Test
+    public void testIdentifierGetterSerialization() throws Exception {
+        CompactKeyMapper<String> mapper = new CompactKeyMapper<>(
+                String::length);
+        String key = mapper.key("foo");
+
+        @SuppressWarnings("unchecked")
+        CompactKeyMapper<String> mapper2 = (CompactKeyMapper<String>) serializeAndDeserialize(
+                new Object[] { mapper })[0];
+
+        assertEquals(key, mapper2.key("bar"));
+    }
+
+    @Test
+    public void testKeyOverflow() throws Exception {
+        CompactKeyMapper<String> mapper = new CompactKeyMapper<>();
+        String first = mapper.key("first");
+
+        Field lastKey = CompactKeyMapper.class.getDeclaredField("lastKey");
+        lastKey.setAccessible(true);
+        lastKey.setInt(mapper, Integer.MAX_VALUE - 1);
+
+        String last = mapper.key("last");
+        String wrapped = mapper.key("wrapped");
+        assertEquals(Integer.toHexString(Integer.MAX_VALUE), last);
+        // Keys still in use are skipped
+        assertNotEquals(first, wrapped);
+        assertEquals("first", mapper.get(first));
+        assertEquals("last", mapper.get(last));
+        assertEquals("wrapped", mapper.get(wrapped));
+    }
+
+    private static Object[] serializeAndDeserialize(Object[] objects)
+            throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(objects);
+        out.close();
+        return (Object[]) new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())).readObject();
+    }
+}
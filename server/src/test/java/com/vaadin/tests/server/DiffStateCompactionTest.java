@@ -0,0 +1,76 @@
+package com.vaadin.tests.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.tests.util.MockUI;
+import com.vaadin.ui.ConnectorTracker;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.UI;
+
+import elemental.json.JsonObject;
+
+public class DiffStateCompactionTest {
+
+    private UI ui;
+    private ConnectorTracker tracker;
+    private Label label;
+
+    @Before
+    public void setUp() {
+        ui = new MockUI();
+        tracker = ui.getConnectorTracker();
+        label = new Label("text");
+        label.setCaption("caption");
+        ui.setContent(label);
+
+        label.encodeState();
+        tracker.markAllConnectorsClean();
+        tracker.cleanConnectorMap();
+    }
+
+    @Test
+    public void compactedDiffState_expandedWithDefaults() {
+        JsonObject diffState = tracker.getDiffState(label);
+
+        Assert.assertEquals("caption", diffState.getString("caption"));
+        Assert.assertEquals("text", diffState.getString("text"));
+        Assert.assertTrue("Default values should be included",
+                diffState.hasKey("description"));
+    }
+
+    @Test
+    public void compactedDiffState_noChangesSent() {
+        label.markAsDirty();
+
+        Assert.assertEquals(0, label.encodeState().keys().length);
+    }
+
+    @Test
+    public void modifiedDiffState_modificationRetained() {
+        tracker.getDiffState(label).put("enabled", false);
+        tracker.cleanConnectorMap();
+
+        Assert.assertFalse(tracker.getDiffState(label).getBoolean("enabled"));
+
+        // The client is assumed to have the modified value
+        label.markAsDirty();
+        Assert.assertTrue(label.encodeState().getBoolean("enabled"));
+    }
+
+    @Test
+    public void serialization_expandedDiffStateNotCompacted()
+            throws IOException {
+        JsonObject diffState = tracker.getDiffState(label);
+
+        new ObjectOutputStream(new ByteArrayOutputStream())
+                .writeObject(tracker);
+
+        Assert.assertSame(diffState, tracker.getDiffState(label));
+    }
+}
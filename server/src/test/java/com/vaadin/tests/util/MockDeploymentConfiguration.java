@@ -21,6 +21,11 @@ public class MockDeploymentConfiguration
     private Map<String, String> applicationOrSystemProperty = new HashMap<String, String>();
     private boolean syncIdCheckEnabled = true;
     private boolean sendUrlsAsParameters = true;
+    private boolean uidlStreaming = false;
+    private int maxReplayableResponseSize = 0;
+    private int staticResourceCacheSize = 16777216;
+    private int sessionReaperInterval = 0;
+    private int sessionReaperMaxSessions = 100;
 
     @Override
     public boolean isProductionMode() {
@@ -113,4 +118,48 @@ public class MockDeploymentConfiguration
         return sendUrlsAsParameters;
     }
 
+    @Override
+    public boolean isUidlStreamingEnabled() {
+        return uidlStreaming;
+    }
+
+    public void setUidlStreaming(boolean uidlStreaming) {
+        this.uidlStreaming = uidlStreaming;
+    }
+
+    @Override
+    public int getMaxReplayableResponseSize() {
+        return maxReplayableResponseSize;
+    }
+
+    public void setMaxReplayableResponseSize(int maxReplayableResponseSize) {
+        this.maxReplayableResponseSize = maxReplayableResponseSize;
+    }
+
+    @Override
+    public int getStaticResourceCacheSize() {
+        return staticResourceCacheSize;
+    }
+
+    public void setStaticResourceCacheSize(int staticResourceCacheSize) {
+        this.staticResourceCacheSize = staticResourceCacheSize;
+    }
+
+    @Override
+    public int getSessionReaperInterval() {
+        return sessionReaperInterval;
+    }
+
+    public void setSessionReaperInterval(int sessionReaperInterval) {
+        this.sessionReaperInterval = sessionReaperInterval;
+    }
+
+    @Override
+    public int getSessionReaperMaxSessions() {
+        return sessionReaperMaxSessions;
+    }
+
+    public void setSessionReaperMaxSessions(int sessionReaperMaxSessions) {
+        this.sessionReaperMaxSessions = sessionReaperMaxSessions;
+    }
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.ui;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.tests.util.MockUI;
+
+public class PushConfigurationCoalescingTest {
+
+    private PushConfiguration configuration;
+
+    @Before
+    public void setUp() {
+        configuration = new MockUI().getPushConfiguration();
+    }
+
+    @Test
+    public void defaults_noCoalescing() {
+        Assert.assertEquals(0, configuration.getMinPushInterval());
+        Assert.assertEquals(0, configuration.getMaxPendingChanges());
+        Assert.assertEquals(0, configuration.getMaxPushLatency());
+    }
+
+    @Test
+    public void setValues_valuesReturned() {
+        configuration.setMinPushInterval(500);
+        configuration.setMaxPendingChanges(20);
+        configuration.setMaxPushLatency(2000);
+
+        Assert.assertEquals(500, configuration.getMinPushInterval());
+        Assert.assertEquals(20, configuration.getMaxPendingChanges());
+        Assert.assertEquals(2000, configuration.getMaxPushLatency());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeInterval_throws() {
+        configuration.setMinPushInterval(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativePendingChanges_throws() {
+        configuration.setMaxPendingChanges(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeLatency_throws() {
+        configuration.setMaxPushLatency(-1);
+    }
+}
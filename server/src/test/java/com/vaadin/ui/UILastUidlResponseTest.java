@@ -0,0 +1,40 @@
+package com.vaadin.ui;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.tests.util.MockUI;
+
+public class UILastUidlResponseTest {
+
+    private UI ui;
+
+    @Before
+    public void setUp() {
+        ui = new MockUI();
+    }
+
+    @Test
+    public void noResponse_nullReturned() {
+        Assert.assertNull(ui.getLastUidlResponse());
+    }
+
+    @Test
+    public void responseKept_returned() {
+        ui.setLastUidlResponse("for(;;);[{}]");
+
+        Assert.assertEquals("for(;;);[{}]", ui.getLastUidlResponse());
+    }
+
+    @Test
+    public void newerResponseWritten_nullReturned() {
+        ui.setLastUidlResponse("for(;;);[{}]");
+
+        // Writing e.g. a push message bumps the sync id
+        ui.getConnectorTracker().setWritingResponse(true);
+        ui.getConnectorTracker().setWritingResponse(false);
+
+        Assert.assertNull(ui.getLastUidlResponse());
+    }
+}
@@ -18,6 +18,8 @@ package com.vaadin.shared.annotations;
 
 import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 import com.vaadin.shared.communication.ServerRpc;
@@ -34,13 +36,15 @@ import com.vaadin.shared.communication.ServerRpc;
  * @since 7.0.0
  */
 @Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
 @Documented
 public @interface Delayed {
     /**
      * By setting lastOnly to <code>true</code>, any previous invocations of the
      * same method will be removed from the queue when a new invocation is
      * added. This can be used in cases where only the last value is of
-     * interest.
+     * interest. The server also executes only the last invocation of the method
+     * for each connector in a message.
      * <p>
      * The default value is <code>false</code> which means that invoking the
      * method multiple times will cause multiple invocations to be enqueued and
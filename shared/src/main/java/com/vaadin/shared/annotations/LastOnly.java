@@ -0,0 +1,44 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.shared.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.vaadin.shared.communication.ServerRpc;
+
+/**
+ * Annotation used to mark {@link ServerRpc} methods for which only the last
+ * invocation is of interest. When a method marked with this annotation is
+ * invoked multiple times before the queue of outgoing RPC invocations is sent
+ * to the server, only the last invocation is sent. The server also executes
+ * only the last invocation of such a method for each connector in a message.
+ * <p>
+ * Unlike {@link Delayed#lastOnly()}, the invocation is sent to the server
+ * without waiting for some other RPC method to be invoked.
+ *
+ * @since 8.0
+ * @author Vaadin Ltd
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface LastOnly {
+    // Just an empty marker annotation
+}
@@ -56,5 +56,24 @@ public interface DataCommunicatorClientRpc extends ClientRpc {
      */
     void updateData(JsonArray data);
 
-    // TODO: Notify add / remove
+    /**
+     * Informs the client-side DataSource that rows have been inserted. The
+     * data for inserted rows is sent separately.
+     *
+     * @param firstIndex
+     *            index of the first inserted row
+     * @param count
+     *            number of inserted rows
+     */
+    void insertRows(int firstIndex, int count);
+
+    /**
+     * Informs the client-side DataSource that rows have been removed.
+     *
+     * @param firstIndex
+     *            index of the first removed row
+     * @param count
+     *            number of removed rows
+     */
+    void removeRows(int firstIndex, int count);
 }
\ No newline at end of file
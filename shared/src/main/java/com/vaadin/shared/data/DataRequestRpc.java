@@ -17,6 +17,7 @@
 package com.vaadin.shared.data;
 
 import com.vaadin.shared.annotations.Delayed;
+import com.vaadin.shared.annotations.LastOnly;
 import com.vaadin.shared.annotations.NoLoadingIndicator;
 import com.vaadin.shared.communication.ServerRpc;
 
@@ -43,6 +44,7 @@ public interface DataRequestRpc extends ServerRpc {
      *            the number of cached rows
      */
     @NoLoadingIndicator
+    @LastOnly
     public void requestRows(int firstRowIndex, int numberOfRows,
             int firstCachedRowIndex, int cacheSize);
 
@@ -60,17 +60,18 @@ public class CommErrorEmulatorServlet extends VaadinServlet {
 
     public class CommErrorHeartbeatHandler extends HeartbeatHandler {
         @Override
-        public boolean synchronizedHandleRequest(VaadinSession session,
+        public boolean handleRequest(VaadinSession session,
                 VaadinRequest request, VaadinResponse response)
                 throws IOException {
-            UI ui = session.getService().findUI(request);
+            UI ui = canHandleRequest(request) ? findUI(session, request)
+                    : null;
             if (ui != null && heartbeatResponseCode.containsKey(ui)) {
                 response.sendError(heartbeatResponseCode.get(ui),
                         "Error set in UI");
                 return true;
             }
 
-            return super.synchronizedHandleRequest(session, request, response);
+            return super.handleRequest(session, request, response);
         }
 
     }